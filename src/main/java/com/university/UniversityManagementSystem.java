@@ -1,19 +1,27 @@
 package com.university;
 
+import com.university.analytics.Aggregate;
+import com.university.analytics.ColumnarSnapshot;
 import com.university.dao.StudentDAO;
 import com.university.dao.CourseDAO;
 import com.university.dao.EnrollmentDAO;
+import com.university.dao.Page;
 import com.university.model.*;
 import com.university.database.DatabaseConnection;
+import com.university.service.TranscriptService;
 
 import java.util.*;
 import java.util.Scanner;
+import java.util.function.Function;
 
 public class UniversityManagementSystem {
+    private static final int PAGE_SIZE = 20;
+    
     private Scanner scanner;
     private StudentDAO studentDAO;
     private CourseDAO courseDAO;
     private EnrollmentDAO enrollmentDAO;
+    private TranscriptService transcriptService;
     private boolean running;
     
     public UniversityManagementSystem() {
@@ -21,6 +29,7 @@ public class UniversityManagementSystem {
         this.studentDAO = new StudentDAO();
         this.courseDAO = new CourseDAO();
         this.enrollmentDAO = new EnrollmentDAO();
+        this.transcriptService = new TranscriptService();
         this.running = true;
     }
     
@@ -38,6 +47,7 @@ public class UniversityManagementSystem {
             System.out.println("Failed to connect to database. Please check your database configuration.");
             return;
         }
+        EnrollmentDAO.preload();
         
         while (running) {
             displayMainMenu();
@@ -51,6 +61,10 @@ public class UniversityManagementSystem {
         }
         
         scanner.close();
+        if (!EnrollmentDAO.shutdownWriteBehind(10_000)) {
+            System.err.println("Warning: pending enrollment changes were not committed before shutdown.");
+        }
+        DatabaseConnection.getInstance().shutdown();
         System.out.println("Thank you for using the University Management System!");
     }
     
@@ -205,15 +219,7 @@ public class UniversityManagementSystem {
     
     private void viewAllStudents() {
         System.out.println("\n=== All Students ===");
-        List<Student> students = studentDAO.getAllStudents();
-        
-        if (students.isEmpty()) {
-            System.out.println("No students found.");
-        } else {
-            for (Student student : students) {
-                System.out.println(student);
-            }
-        }
+        printPaged(token -> studentDAO.getStudentsPage(token, PAGE_SIZE), "No students found.");
     }
     
     private void searchStudentById() {
@@ -354,8 +360,12 @@ public class UniversityManagementSystem {
             String department = getStringInput("Enter department: ");
             String schedule = getStringInput("Enter schedule: ");
             String location = getStringInput("Enter location: ");
+            Integer capacity = getOptionalIntInput("Enter capacity (press Enter for unlimited): ");
+            Integer termId = getOptionalIntInput("Enter term ID, e.g. 20263 for Fall 2026 (press Enter for current term): ");
             
             Course course = new Course(courseId, courseName, description, credits, department, schedule, location);
+            course.setCapacity(capacity);
+            course.setTermId(termId);
             
             if (courseDAO.createCourse(course)) {
                 System.out.println(" Course added successfully!");
@@ -370,15 +380,7 @@ public class UniversityManagementSystem {
     
     private void viewAllCourses() {
         System.out.println("\n=== All Courses ===");
-        List<Course> courses = courseDAO.getAllCourses();
-        
-        if (courses.isEmpty()) {
-            System.out.println("No courses found.");
-        } else {
-            for (Course course : courses) {
-                System.out.println(course);
-            }
-        }
+        printPaged(token -> courseDAO.getCoursesPage(token, PAGE_SIZE), "No courses found.");
     }
     
     private void searchCourseById() {
@@ -439,6 +441,17 @@ public class UniversityManagementSystem {
         String location = getStringInput("Location [" + course.getLocation() + "]: ");
         if (!location.isEmpty()) course.setLocation(location);
         
+        String capacity = getStringInput("Capacity, 0 for unlimited [" +
+                (course.hasCapacityLimit() ? course.getCapacity() : "unlimited") + "]: ");
+        if (!capacity.isEmpty()) {
+            try {
+                int seats = Integer.parseInt(capacity);
+                course.setCapacity(seats > 0 ? seats : null);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid capacity; keeping current value.");
+            }
+        }
+        
         if (courseDAO.updateCourse(course)) {
             System.out.println(" Course updated successfully!");
         } else {
@@ -515,7 +528,7 @@ public class UniversityManagementSystem {
         if (enrollmentDAO.enrollStudent(studentId, courseId)) {
             System.out.println(" Student enrolled successfully!");
         } else {
-            System.out.println(" Failed to enroll student. Please check student and course IDs.");
+            System.out.println(" Failed to enroll student. The course may be full; otherwise check student and course IDs.");
         }
     }
     
@@ -544,49 +557,35 @@ public class UniversityManagementSystem {
     
     private void viewStudentCourses() {
         String studentId = getStringInput("Enter student ID: ");
-        List<String> courseIds = enrollmentDAO.getStudentCourses(studentId);
+        List<EnrollmentDAO.ScheduleEntry> schedule = enrollmentDAO.getStudentSchedule(studentId);
         
-        if (courseIds.isEmpty()) {
+        if (schedule.isEmpty()) {
             System.out.println("Student is not enrolled in any courses.");
         } else {
             System.out.println("\n=== Student's Courses ===");
-            for (String courseId : courseIds) {
-                Course course = courseDAO.getCourseById(courseId);
-                if (course != null) {
-                    System.out.println(course);
-                }
+            for (EnrollmentDAO.ScheduleEntry entry : schedule) {
+                System.out.println(entry);
             }
         }
     }
     
     private void viewCourseRoster() {
         String courseId = getStringInput("Enter course ID: ");
-        List<String> studentIds = enrollmentDAO.getCourseStudents(courseId);
+        List<EnrollmentDAO.RosterEntry> roster = enrollmentDAO.getRosterDetails(courseId);
         
-        if (studentIds.isEmpty()) {
+        if (roster.isEmpty()) {
             System.out.println("No students enrolled in this course.");
         } else {
             System.out.println("\n=== Course Roster ===");
-            for (String studentId : studentIds) {
-                Student student = studentDAO.getStudentById(studentId);
-                if (student != null) {
-                    System.out.println(student);
-                }
+            for (EnrollmentDAO.RosterEntry entry : roster) {
+                System.out.println(entry);
             }
         }
     }
     
     private void viewAllEnrollments() {
         System.out.println("\n=== All Enrollments ===");
-        List<EnrollmentDAO.EnrollmentRecord> enrollments = enrollmentDAO.getAllEnrollments();
-        
-        if (enrollments.isEmpty()) {
-            System.out.println("No enrollments found.");
-        } else {
-            for (EnrollmentDAO.EnrollmentRecord enrollment : enrollments) {
-                System.out.println(enrollment);
-            }
-        }
+        printPaged(token -> enrollmentDAO.getEnrollmentsPage(token, PAGE_SIZE), "No enrollments found.");
     }
     
     private void viewReportsMenu() {
@@ -595,7 +594,9 @@ public class UniversityManagementSystem {
             System.out.println("1. Student Statistics");
             System.out.println("2. Course Statistics");
             System.out.println("3. Enrollment Statistics");
-            System.out.println("4. Back to Main Menu");
+            System.out.println("4. Student Transcript");
+            System.out.println("5. Department Analytics");
+            System.out.println("6. Back to Main Menu");
             System.out.println("================");
             
             try {
@@ -612,6 +613,12 @@ public class UniversityManagementSystem {
                         viewEnrollmentStatistics();
                         break;
                     case 4:
+                        viewStudentTranscript();
+                        break;
+                    case 5:
+                        viewDepartmentAnalytics();
+                        break;
+                    case 6:
                         return;
                     default:
                         System.out.println("Invalid choice. Please try again.");
@@ -624,26 +631,30 @@ public class UniversityManagementSystem {
     
     private void viewStudentStatistics() {
         System.out.println("\n=== Student Statistics ===");
-        List<Student> students = studentDAO.getAllStudents();
         
-        System.out.println("Total Students: " + students.size());
+        // Streamed so the report does not hold every student in memory
+        long[] typeCounts = new long[2];
+        DoubleSummaryStatistics gpaStats = new DoubleSummaryStatistics();
+        int total = studentDAO.forEachStudent(s -> {
+            if (s instanceof UndergraduateStudent) {
+                typeCounts[0]++;
+            } else if (s instanceof GraduateStudent) {
+                typeCounts[1]++;
+            }
+            gpaStats.accept(s.getGpa());
+        });
         
-        long undergradCount = students.stream()
-                .filter(s -> s instanceof UndergraduateStudent)
-                .count();
-        long gradCount = students.stream()
-                .filter(s -> s instanceof GraduateStudent)
-                .count();
+        if (total < 0) {
+            System.out.println("Failed to load student statistics.");
+            return;
+        }
         
-        System.out.println("Undergraduate Students: " + undergradCount);
-        System.out.println("Graduate Students: " + gradCount);
+        System.out.println("Total Students: " + total);
+        System.out.println("Undergraduate Students: " + typeCounts[0]);
+        System.out.println("Graduate Students: " + typeCounts[1]);
         
-        if (!students.isEmpty()) {
-            double avgGPA = students.stream()
-                    .mapToDouble(Student::getGpa)
-                    .average()
-                    .orElse(0.0);
-            System.out.println("Average GPA: " + String.format("%.2f", avgGPA));
+        if (total > 0) {
+            System.out.println("Average GPA: " + String.format("%.2f", gpaStats.getAverage()));
         }
     }
     
@@ -665,17 +676,107 @@ public class UniversityManagementSystem {
     
     private void viewEnrollmentStatistics() {
         System.out.println("\n=== Enrollment Statistics ===");
-        List<EnrollmentDAO.EnrollmentRecord> enrollments = enrollmentDAO.getAllEnrollments();
         
-        System.out.println("Total Active Enrollments: " + enrollments.size());
+        // One read of the maintained per-course summary instead of a scan of every enrollment
+        Map<String, EnrollmentDAO.EnrollmentStats> courseStats = enrollmentDAO.getAllCourseStats();
+        
+        long total = 0;
+        long graded = 0;
+        double gradeSum = 0;
+        for (EnrollmentDAO.EnrollmentStats stats : courseStats.values()) {
+            total += stats.getTotalEnrolled();
+            graded += stats.getGradedCount();
+            gradeSum += stats.getGradeSum();
+        }
+        
+        System.out.println("Total Active Enrollments: " + total);
         
-        if (!enrollments.isEmpty()) {
-            double avgGrade = enrollments.stream()
-                    .filter(e -> e.getGrade() > 0)
-                    .mapToDouble(EnrollmentDAO.EnrollmentRecord::getGrade)
-                    .average()
-                    .orElse(0.0);
-            System.out.println("Average Grade: " + String.format("%.2f", avgGrade));
+        if (graded > 0) {
+            System.out.println("Average Grade: " + String.format("%.2f", gradeSum / graded));
+        }
+        
+        if (!courseStats.isEmpty()) {
+            System.out.println("\nEnrollments by Course:");
+            courseStats.forEach((courseId, stats) ->
+                System.out.println("  " + courseId + ": " + stats));
+        }
+    }
+    
+    private void viewStudentTranscript() {
+        String studentId = getStringInput("Enter student ID: ");
+        Transcript transcript = transcriptService.getTranscript(studentId);
+        
+        if (transcript == null) {
+            System.out.println("Student not found.");
+            return;
+        }
+        
+        System.out.println("\n=== Transcript: " + transcript.getStudent().getFullName() + " ===");
+        if (transcript.getEntries().isEmpty()) {
+            System.out.println("No graded courses.");
+            return;
+        }
+        for (Transcript.Entry entry : transcript.getEntries()) {
+            System.out.println("  " + entry);
+        }
+        
+        System.out.println("\nGPA by Term:");
+        transcript.getTermGpas().forEach((termId, gpa) ->
+            System.out.println("  " + termId + ": " + String.format("%.2f", gpa)));
+        System.out.println("Total Credits: " + transcript.getTotalCredits());
+        System.out.println("Cumulative GPA: " + String.format("%.2f", transcript.getGpa()));
+    }
+    
+    private void viewDepartmentAnalytics() {
+        System.out.println("\n=== Department Analytics ===");
+        
+        ColumnarSnapshot snapshot = ColumnarSnapshot.load(studentDAO, courseDAO, enrollmentDAO);
+        if (snapshot == null) {
+            System.out.println("Failed to load analytics data.");
+            return;
+        }
+        
+        System.out.println("Students: " + snapshot.getStudentCount() + ", Courses: " + snapshot.getCourseCount() +
+                           ", Active Enrollments: " + snapshot.getEnrollmentCount());
+        
+        Map<String, Aggregate> credits = snapshot.creditsByDepartment(ColumnarSnapshot.all());
+        Map<String, Aggregate> grades = snapshot.gradesByDepartment(ColumnarSnapshot.all());
+        System.out.println("\nBy Department:");
+        credits.forEach((dept, enrolled) -> {
+            Aggregate graded = grades.get(dept);
+            System.out.println("  " + dept + ": " + enrolled.getCount() + " enrollments, " +
+                               String.format("%.0f", enrolled.getSum()) + " credits" +
+                               (graded != null ? String.format(", average grade %.2f", graded.getAverage()) : ""));
+        });
+        
+        System.out.println("\nGPA by Major:");
+        snapshot.gpaByMajor(ColumnarSnapshot.all()).forEach((major, gpa) ->
+            System.out.println("  " + major + ": " + gpa));
+    }
+    
+    /**
+     * Prints a listing one page at a time, asking before fetching the next page.
+     */
+    private <T> void printPaged(Function<String, Page<T>> fetchPage, String emptyMessage) {
+        Page<T> page = fetchPage.apply(null);
+        
+        if (page.getItems().isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+        
+        while (true) {
+            for (T item : page.getItems()) {
+                System.out.println(item);
+            }
+            if (!page.hasNextPage()) {
+                return;
+            }
+            String input = getStringInput("-- Press Enter for more, or 'q' to stop: ");
+            if (input.equalsIgnoreCase("q")) {
+                return;
+            }
+            page = fetchPage.apply(page.getNextPageToken());
         }
     }
     
@@ -696,6 +797,21 @@ public class UniversityManagementSystem {
         }
     }
     
+    /**
+     * Reads a whole number, or null if the input is left blank.
+     */
+    private Integer getOptionalIntInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                String input = scanner.nextLine().trim();
+                return input.isEmpty() ? null : Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a valid number.");
+            }
+        }
+    }
+    
     private double getDoubleInput(String prompt) {
         while (true) {
             try {
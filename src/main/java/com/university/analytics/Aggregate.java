@@ -0,0 +1,59 @@
+package com.university.analytics;
+
+/**
+ * Count, sum, minimum and maximum of a set of values.
+ */
+public class Aggregate {
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(Aggregate other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return Smallest value, or 0.0 if there are none
+     */
+    public double getMin() {
+        return count > 0 ? min : 0.0;
+    }
+
+    /**
+     * @return Largest value, or 0.0 if there are none
+     */
+    public double getMax() {
+        return count > 0 ? max : 0.0;
+    }
+
+    /**
+     * @return Mean value, or 0.0 if there are none
+     */
+    public double getAverage() {
+        return count > 0 ? sum / count : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, avg=%.2f, min=%.2f, max=%.2f", count, getAverage(), getMin(), getMax());
+    }
+}
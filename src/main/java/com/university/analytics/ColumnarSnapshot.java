@@ -0,0 +1,450 @@
+package com.university.analytics;
+
+import com.university.dao.CourseDAO;
+import com.university.dao.EnrollmentDAO;
+import com.university.dao.StudentDAO;
+import com.university.model.Course;
+import com.university.model.GraduateStudent;
+import com.university.model.Student;
+import com.university.util.Env;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * A read-only, column-per-array copy of students, courses and active
+ * enrollments for analytics.
+ *
+ * Each entity is a set of parallel primitive arrays indexed by row: one
+ * student is gpa[i], yearLevel[i], major[i] and so on. String columns with
+ * few distinct values (major, student type, department) are dictionary
+ * encoded. An enrollment is a (student row, course row) pair plus its
+ * grade, NaN when ungraded. Rows hold no objects, so millions of them fit
+ * in a few dozen bytes each and scan at memory speed.
+ *
+ * Queries split the rows into ranges that are filtered and aggregated in
+ * parallel on a fork-join pool, then merged. Filters are IntPredicates over
+ * row numbers; the methods below build the common ones.
+ *
+ * A snapshot does not change after load(); load a new one to see new data.
+ * Configured with ANALYTICS_SPLIT_ROWS (default 16384), the rows each leaf
+ * task scans.
+ */
+public class ColumnarSnapshot {
+    private static final int SPLIT_ROWS = Math.max(1024, Env.getInt("ANALYTICS_SPLIT_ROWS", 16_384));
+    private static final String GRADUATE = "GRADUATE";
+    private static final String UNDERGRADUATE = "UNDERGRADUATE";
+
+    private final ForkJoinPool pool;
+
+    // Students
+    private String[] studentIds = new String[0];
+    private double[] gpa = new double[0];
+    private int[] yearLevel = new int[0];
+    private int[] major = new int[0];
+    private int[] studentType = new int[0];
+    private int studentCount;
+    private final Dictionary majors = new Dictionary();
+    private final Dictionary studentTypes = new Dictionary();
+
+    // Courses
+    private String[] courseIds = new String[0];
+    private int[] credits = new int[0];
+    private int[] department = new int[0];
+    private int courseCount;
+    private final Dictionary departments = new Dictionary();
+
+    // Active enrollments of the selected term
+    private int[] enrollmentStudent = new int[0];
+    private int[] enrollmentCourse = new int[0];
+    private double[] grade = new double[0];
+    private int enrollmentCount;
+
+    private ColumnarSnapshot(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Loads every student and course, and the active enrollments of the
+     * term selected on the EnrollmentDAO. Students and enrollments are
+     * streamed, so no object lists are built along the way.
+     * @return The snapshot, or null if any of the reads failed
+     */
+    public static ColumnarSnapshot load(StudentDAO studentDAO, CourseDAO courseDAO, EnrollmentDAO enrollmentDAO) {
+        return load(studentDAO, courseDAO, enrollmentDAO, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool that runs this snapshot's queries
+     */
+    public static ColumnarSnapshot load(StudentDAO studentDAO, CourseDAO courseDAO, EnrollmentDAO enrollmentDAO,
+                                        ForkJoinPool pool) {
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(pool);
+        Map<String, Integer> studentRows = new HashMap<>();
+        Map<String, Integer> courseRows = new HashMap<>();
+
+        if (studentDAO.forEachStudent(student -> {
+            studentRows.put(student.getId(), snapshot.studentCount);
+            snapshot.addStudent(student);
+        }) < 0) {
+            return null;
+        }
+
+        List<Course> courses = courseDAO.getAllCourses();
+        for (Course course : courses) {
+            courseRows.put(course.getCourseId(), snapshot.courseCount);
+            snapshot.addCourse(course);
+        }
+
+        if (enrollmentDAO.forEachEnrollment(record -> {
+            Integer studentRow = studentRows.get(record.getStudentId());
+            Integer courseRow = courseRows.get(record.getCourseId());
+            // Rows written between the reads above and this one are left out
+            if (studentRow != null && courseRow != null) {
+                snapshot.addEnrollment(studentRow, courseRow, record.isGraded() ? record.getGrade() : Double.NaN);
+            }
+        }) < 0) {
+            return null;
+        }
+
+        snapshot.trim();
+        return snapshot;
+    }
+
+    private void addStudent(Student student) {
+        if (studentCount == gpa.length) {
+            int capacity = Math.max(1024, studentCount * 2);
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            gpa = Arrays.copyOf(gpa, capacity);
+            yearLevel = Arrays.copyOf(yearLevel, capacity);
+            major = Arrays.copyOf(major, capacity);
+            studentType = Arrays.copyOf(studentType, capacity);
+        }
+        studentIds[studentCount] = student.getId();
+        gpa[studentCount] = student.getGpa();
+        yearLevel[studentCount] = student.getYearLevel();
+        major[studentCount] = majors.encode(student.getMajor());
+        studentType[studentCount] = studentTypes.encode(student instanceof GraduateStudent ? GRADUATE : UNDERGRADUATE);
+        studentCount++;
+    }
+
+    private void addCourse(Course course) {
+        if (courseCount == credits.length) {
+            int capacity = Math.max(256, courseCount * 2);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            credits = Arrays.copyOf(credits, capacity);
+            department = Arrays.copyOf(department, capacity);
+        }
+        courseIds[courseCount] = course.getCourseId();
+        credits[courseCount] = course.getCredits();
+        department[courseCount] = departments.encode(course.getDepartment());
+        courseCount++;
+    }
+
+    private void addEnrollment(int studentRow, int courseRow, double value) {
+        if (enrollmentCount == grade.length) {
+            int capacity = Math.max(4096, enrollmentCount * 2);
+            enrollmentStudent = Arrays.copyOf(enrollmentStudent, capacity);
+            enrollmentCourse = Arrays.copyOf(enrollmentCourse, capacity);
+            grade = Arrays.copyOf(grade, capacity);
+        }
+        enrollmentStudent[enrollmentCount] = studentRow;
+        enrollmentCourse[enrollmentCount] = courseRow;
+        grade[enrollmentCount] = value;
+        enrollmentCount++;
+    }
+
+    private void trim() {
+        studentIds = Arrays.copyOf(studentIds, studentCount);
+        gpa = Arrays.copyOf(gpa, studentCount);
+        yearLevel = Arrays.copyOf(yearLevel, studentCount);
+        major = Arrays.copyOf(major, studentCount);
+        studentType = Arrays.copyOf(studentType, studentCount);
+        courseIds = Arrays.copyOf(courseIds, courseCount);
+        credits = Arrays.copyOf(credits, courseCount);
+        department = Arrays.copyOf(department, courseCount);
+        enrollmentStudent = Arrays.copyOf(enrollmentStudent, enrollmentCount);
+        enrollmentCourse = Arrays.copyOf(enrollmentCourse, enrollmentCount);
+        grade = Arrays.copyOf(grade, enrollmentCount);
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public int getCourseCount() {
+        return courseCount;
+    }
+
+    public int getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    public Dictionary getMajors() {
+        return majors;
+    }
+
+    public Dictionary getStudentTypes() {
+        return studentTypes;
+    }
+
+    public Dictionary getDepartments() {
+        return departments;
+    }
+
+    public String getStudentId(int studentRow) {
+        return studentIds[studentRow];
+    }
+
+    public String getCourseId(int courseRow) {
+        return courseIds[courseRow];
+    }
+
+    // Filters
+
+    /**
+     * @return Matches every row
+     */
+    public static IntPredicate all() {
+        return row -> true;
+    }
+
+    /**
+     * @return Student filter for one major
+     */
+    public IntPredicate studentsInMajor(String value) {
+        int code = majors.codeOf(value);
+        return row -> major[row] == code;
+    }
+
+    /**
+     * @param type "GRADUATE" or "UNDERGRADUATE"
+     * @return Student filter for one student type
+     */
+    public IntPredicate studentsOfType(String type) {
+        int code = studentTypes.codeOf(type);
+        return row -> studentType[row] == code;
+    }
+
+    /**
+     * @return Student filter for a range of year levels, inclusive
+     */
+    public IntPredicate studentsInYears(int fromYear, int toYear) {
+        return row -> yearLevel[row] >= fromYear && yearLevel[row] <= toYear;
+    }
+
+    /**
+     * @return Enrollment filter for the courses of one department
+     */
+    public IntPredicate enrollmentsInDepartment(String value) {
+        int code = departments.codeOf(value);
+        return row -> department[enrollmentCourse[row]] == code;
+    }
+
+    /**
+     * Lifts a student filter to enrollments: keeps the enrollments of the
+     * matching students.
+     */
+    public IntPredicate enrollmentsOfStudents(IntPredicate studentFilter) {
+        return row -> studentFilter.test(enrollmentStudent[row]);
+    }
+
+    // Student aggregations
+
+    /**
+     * @return Number of students matching the filter
+     */
+    public long countStudents(IntPredicate filter) {
+        return reduce(studentCount, (from, to) -> {
+            long[] count = new long[1];
+            for (int row = from; row < to; row++) {
+                if (filter.test(row)) {
+                    count[0]++;
+                }
+            }
+            return count;
+        }, (left, right) -> {
+            left[0] += right[0];
+            return left;
+        })[0];
+    }
+
+    /**
+     * @return GPA statistics of the students matching the filter
+     */
+    public Aggregate gpa(IntPredicate filter) {
+        return reduce(studentCount, (from, to) -> {
+            Aggregate aggregate = new Aggregate();
+            for (int row = from; row < to; row++) {
+                if (filter.test(row)) {
+                    aggregate.add(gpa[row]);
+                }
+            }
+            return aggregate;
+        }, (left, right) -> {
+            left.merge(right);
+            return left;
+        });
+    }
+
+    /**
+     * @return GPA statistics per major of the students matching the filter,
+     *         in order of first appearance
+     */
+    public Map<String, Aggregate> gpaByMajor(IntPredicate filter) {
+        return grouped(majors, groupBy(studentCount, majors.size(), filter, row -> major[row], row -> gpa[row]));
+    }
+
+    /**
+     * @return GPA statistics per year level of the students matching the filter, by year
+     */
+    public Map<Integer, Aggregate> gpaByYearLevel(IntPredicate filter) {
+        int maxYear = 0;
+        for (int row = 0; row < studentCount; row++) {
+            maxYear = Math.max(maxYear, yearLevel[row]);
+        }
+        Aggregate[] groups = groupBy(studentCount, maxYear + 1, filter,
+                                     row -> Math.max(0, yearLevel[row]), row -> gpa[row]);
+        Map<Integer, Aggregate> result = new LinkedHashMap<>();
+        for (int year = 0; year < groups.length; year++) {
+            if (groups[year].getCount() > 0) {
+                result.put(year, groups[year]);
+            }
+        }
+        return result;
+    }
+
+    // Enrollment aggregations
+
+    /**
+     * @return Grade statistics per department over the graded enrollments
+     *         matching the filter, in order of first appearance
+     */
+    public Map<String, Aggregate> gradesByDepartment(IntPredicate filter) {
+        IntPredicate graded = row -> !Double.isNaN(grade[row]) && filter.test(row);
+        return grouped(departments, groupBy(enrollmentCount, departments.size(), graded,
+                                            row -> department[enrollmentCourse[row]], row -> grade[row]));
+    }
+
+    /**
+     * @return Active enrollments per department matching the filter; the
+     *         aggregate's sum is the enrolled credits
+     */
+    public Map<String, Aggregate> creditsByDepartment(IntPredicate filter) {
+        return grouped(departments, groupBy(enrollmentCount, departments.size(), filter,
+                                            row -> department[enrollmentCourse[row]],
+                                            row -> credits[enrollmentCourse[row]]));
+    }
+
+    /**
+     * Column accessor used by groupBy.
+     */
+    private interface RowInt {
+        int get(int row);
+    }
+
+    /**
+     * Column accessor used by groupBy.
+     */
+    private interface RowDouble {
+        double get(int row);
+    }
+
+    private Aggregate[] groupBy(int rows, int groups, IntPredicate filter, RowInt key, RowDouble value) {
+        return reduce(rows, (from, to) -> {
+            Aggregate[] partial = newAggregates(groups);
+            for (int row = from; row < to; row++) {
+                if (filter.test(row)) {
+                    partial[key.get(row)].add(value.get(row));
+                }
+            }
+            return partial;
+        }, (left, right) -> {
+            for (int i = 0; i < left.length; i++) {
+                left[i].merge(right[i]);
+            }
+            return left;
+        });
+    }
+
+    private static Aggregate[] newAggregates(int count) {
+        Aggregate[] aggregates = new Aggregate[count];
+        for (int i = 0; i < count; i++) {
+            aggregates[i] = new Aggregate();
+        }
+        return aggregates;
+    }
+
+    private static Map<String, Aggregate> grouped(Dictionary dictionary, Aggregate[] groups) {
+        Map<String, Aggregate> result = new LinkedHashMap<>();
+        for (int code = 0; code < groups.length; code++) {
+            if (groups[code].getCount() > 0) {
+                result.put(dictionary.decode(code), groups[code]);
+            }
+        }
+        return result;
+    }
+
+    // Fork-join plumbing
+
+    /**
+     * Aggregates rows [from, to) sequentially.
+     */
+    private interface RangeFunction<A> {
+        A apply(int from, int to);
+    }
+
+    /**
+     * Combines two partial results; may reuse either.
+     */
+    private interface Merger<A> {
+        A merge(A left, A right);
+    }
+
+    private <A> A reduce(int rows, RangeFunction<A> leaf, Merger<A> merger) {
+        if (rows <= SPLIT_ROWS) {
+            return leaf.apply(0, rows);
+        }
+        return pool.invoke(new RangeTask<>(0, rows, leaf, merger));
+    }
+
+    private static class RangeTask<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient RangeFunction<A> leaf;
+        private final transient Merger<A> merger;
+
+        RangeTask(int from, int to, RangeFunction<A> leaf, Merger<A> merger) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.merger = merger;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= SPLIT_ROWS) {
+                return leaf.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask<A> left = new RangeTask<>(from, middle, leaf, merger);
+            left.fork();
+            A right = new RangeTask<>(middle, to, leaf, merger).compute();
+            return merger.merge(left.join(), right);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnarSnapshot{students=%d, courses=%d, enrollments=%d}",
+                studentCount, courseCount, enrollmentCount);
+    }
+}
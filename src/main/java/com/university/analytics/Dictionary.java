@@ -0,0 +1,48 @@
+package com.university.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a low-cardinality string column: each distinct
+ * value gets a dense int code in order of first appearance, and the column
+ * stores codes. null is a value like any other.
+ */
+public class Dictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @return The value's code, assigning the next one if the value is new
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * @return The value's code, or -1 if the value does not occur
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return Number of distinct values; codes run from 0 to size() - 1
+     */
+    public int size() {
+        return values.size();
+    }
+}
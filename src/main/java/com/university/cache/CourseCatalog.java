@@ -0,0 +1,300 @@
+package com.university.cache;
+
+import com.university.model.Course;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The whole course table held in memory as an immutable snapshot with id,
+ * department and instructor indexes.
+ *
+ * Readers never lock: they read whichever snapshot is current. A refresh
+ * builds a new snapshot and swaps it in atomically. Refreshes happen lazily
+ * after invalidate() (called by CourseDAO on every write), or when a poll
+ * sees that the updated_at watermark or the row count has moved, which
+ * catches writes made by other processes.
+ *
+ * Course objects inside a snapshot are shared by all readers and must be
+ * treated as read-only; CourseDAO hands out copies, and changes are saved
+ * through it.
+ */
+public class CourseCatalog {
+
+    /**
+     * Reads the catalog source data.
+     */
+    public interface Loader {
+        /**
+         * @return Every course with its instructor, in display order
+         */
+        List<Course> loadAll() throws SQLException;
+
+        /**
+         * @return Cheap summary that changes whenever the course data changes
+         */
+        Watermark currentWatermark() throws SQLException;
+    }
+
+    private final Loader loader;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private volatile boolean stale = true;
+    private long nextVersion = 1;
+    private ScheduledExecutorService poller;
+    private ScheduledFuture<?> pollTask;
+
+    public CourseCatalog(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the current snapshot, refreshing it first if it was invalidated.
+     * @throws SQLException if the snapshot has to be loaded and loading fails
+     */
+    public Snapshot snapshot() throws SQLException {
+        Snapshot snapshot = current.get();
+        if (snapshot == null || stale) {
+            snapshot = refresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Marks the snapshot out of date; the next read reloads it. Several writes
+     * in a row therefore cost a single reload.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Reloads the catalog and swaps the new snapshot in.
+     * @return The new snapshot
+     */
+    public synchronized Snapshot refresh() throws SQLException {
+        Snapshot snapshot = current.get();
+        if (snapshot != null && !stale) {
+            // Another thread refreshed while we waited for the lock
+            return snapshot;
+        }
+        // Cleared before loading so that a write during the load marks it stale again
+        stale = false;
+        try {
+            Watermark watermark = loader.currentWatermark();
+            snapshot = new Snapshot(nextVersion++, watermark, loader.loadAll());
+        } catch (SQLException | RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Compares the database watermark with the current snapshot and reloads
+     * if they differ.
+     * @return true if the catalog was reloaded
+     */
+    public boolean refreshIfChanged() throws SQLException {
+        Snapshot snapshot = current.get();
+        if (snapshot != null && !stale && snapshot.getWatermark().equals(loader.currentWatermark())) {
+            return false;
+        }
+        invalidate();
+        refresh();
+        return true;
+    }
+
+    /**
+     * Polls the watermark in the background so changes made outside this
+     * process are picked up within the interval.
+     */
+    public synchronized void startPolling(long intervalMillis) {
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "course-catalog-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (pollTask != null) {
+            pollTask.cancel(false);
+        }
+        pollTask = poller.scheduleWithFixedDelay(() -> {
+            try {
+                refreshIfChanged();
+            } catch (SQLException e) {
+                System.err.println("Error refreshing course catalog: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopPolling() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+            pollTask = null;
+        }
+    }
+
+    /**
+     * Identifies a version of the course data: the latest updated_at of
+     * courses and instructors plus the course count, which moves on deletes.
+     */
+    public static class Watermark {
+        private final Timestamp coursesUpdatedAt;
+        private final Timestamp instructorsUpdatedAt;
+        private final int courseCount;
+
+        public Watermark(Timestamp coursesUpdatedAt, Timestamp instructorsUpdatedAt, int courseCount) {
+            this.coursesUpdatedAt = coursesUpdatedAt;
+            this.instructorsUpdatedAt = instructorsUpdatedAt;
+            this.courseCount = courseCount;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Watermark other = (Watermark) obj;
+            return courseCount == other.courseCount
+                    && Objects.equals(coursesUpdatedAt, other.coursesUpdatedAt)
+                    && Objects.equals(instructorsUpdatedAt, other.instructorsUpdatedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(coursesUpdatedAt, instructorsUpdatedAt, courseCount);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Watermark{courses=%s, instructors=%s, count=%d}",
+                    coursesUpdatedAt, instructorsUpdatedAt, courseCount);
+        }
+    }
+
+    /**
+     * One immutable version of the catalog.
+     */
+    public static class Snapshot {
+        private final long version;
+        private final Watermark watermark;
+        private final List<Course> courses;
+        private final Map<String, Course> byId;
+        private final Map<String, List<Course>> byDepartment;
+        private final Map<String, List<Course>> byInstructor;
+        private final Map<Integer, List<Course>> byTerm;
+
+        Snapshot(long version, Watermark watermark, List<Course> loaded) {
+            this.version = version;
+            this.watermark = watermark;
+            this.courses = Collections.unmodifiableList(new ArrayList<>(loaded));
+
+            Map<String, Course> ids = new LinkedHashMap<>();
+            Map<String, List<Course>> departments = new LinkedHashMap<>();
+            Map<String, List<Course>> instructors = new LinkedHashMap<>();
+            Map<Integer, List<Course>> terms = new LinkedHashMap<>();
+            for (Course course : courses) {
+                ids.put(course.getCourseId(), course);
+                if (course.getDepartment() != null) {
+                    departments.computeIfAbsent(course.getDepartment().toLowerCase(), k -> new ArrayList<>()).add(course);
+                }
+                if (course.getInstructor() != null) {
+                    instructors.computeIfAbsent(course.getInstructor().getId(), k -> new ArrayList<>()).add(course);
+                }
+                if (course.getTermId() != null) {
+                    terms.computeIfAbsent(course.getTermId(), k -> new ArrayList<>()).add(course);
+                }
+            }
+            departments.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            instructors.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            terms.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byDepartment = Collections.unmodifiableMap(departments);
+            this.byInstructor = Collections.unmodifiableMap(instructors);
+            this.byTerm = Collections.unmodifiableMap(terms);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Watermark getWatermark() {
+            return watermark;
+        }
+
+        /**
+         * @return All courses ordered by course name (read-only)
+         */
+        public List<Course> getAllCourses() {
+            return courses;
+        }
+
+        public Course getCourse(String courseId) {
+            return byId.get(courseId);
+        }
+
+        /**
+         * Finds courses whose department contains the search text, ignoring
+         * case, like the SQL ILIKE '%text%' search.
+         * @return Matching courses ordered by course name (read-only)
+         */
+        public List<Course> findByDepartment(String department) {
+            String needle = department.toLowerCase();
+            List<Course> exact = byDepartment.get(needle);
+            Set<String> matches = new HashSet<>();
+            for (String key : byDepartment.keySet()) {
+                if (key.contains(needle)) {
+                    matches.add(key);
+                }
+            }
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+            if (exact != null && matches.size() == 1) {
+                return exact;
+            }
+
+            List<Course> result = new ArrayList<>();
+            for (Course course : courses) {
+                if (course.getDepartment() != null && matches.contains(course.getDepartment().toLowerCase())) {
+                    result.add(course);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * @return Courses taught by the instructor, ordered by course name (read-only)
+         */
+        public List<Course> findByInstructor(String instructorId) {
+            return byInstructor.getOrDefault(instructorId, Collections.emptyList());
+        }
+
+        /**
+         * @return Courses offered in the term, ordered by course name (read-only)
+         */
+        public List<Course> findByTerm(int termId) {
+            return byTerm.getOrDefault(termId, Collections.emptyList());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Snapshot{version=%d, courses=%d, %s}", version, courses.size(), watermark);
+        }
+    }
+}
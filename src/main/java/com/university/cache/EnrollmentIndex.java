@@ -0,0 +1,357 @@
+package com.university.cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Active enrollments held in memory so that membership checks do not query
+ * the database.
+ *
+ * Each course id is mapped to a small surrogate int, and each student keeps a
+ * sorted int[] of the surrogates of their active courses, searched with a
+ * binary search. A Bloom filter over (student, course) pairs sits in front:
+ * most pairs that are not enrolled are turned away by a few bit probes
+ * without touching the per-student map.
+ *
+ * Like SeatCounter, the index is a filter, not the authority. A "yes" is
+ * answered from memory; a "no" means "not known here" and the caller asks
+ * the database, then add()s what it finds. EnrollmentDAO keeps the index in
+ * step with its own writes; changes made by other processes, or in bulk
+ * outside the DAO, are only seen after load().
+ *
+ * Readers never lock. Writers are serialized, and each student's array is
+ * replaced rather than changed in place.
+ */
+public class EnrollmentIndex {
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+    private static final int MIN_BLOOM_BITS = 1 << 16;
+    private static final int[] NO_COURSES = new int[0];
+
+    private final Object loadLock = new Object();
+    private volatile State state = new State(0);
+    /** Changes made while a load is reading the database, replayed onto its result. */
+    private List<Change> pending;
+    private int nextCourseIndex;
+
+    private static class Holder {
+        private static final EnrollmentIndex INSTANCE = new EnrollmentIndex();
+    }
+
+    /**
+     * @return Index shared by all EnrollmentDAO instances
+     */
+    public static EnrollmentIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Supplies the full set of active enrollments to load().
+     */
+    public interface Source {
+        /**
+         * @param sink Receives every active (student, course) pair
+         */
+        void forEachEnrollment(Sink sink) throws SQLException;
+    }
+
+    /**
+     * Receives one active enrollment during load().
+     */
+    public interface Sink {
+        void accept(String studentId, String courseId);
+    }
+
+    /**
+     * @return true if the student is known to be actively enrolled; false
+     *         means the index does not know and the database must be asked
+     */
+    public boolean contains(String studentId, String courseId) {
+        State current = state;
+        Integer course = current.courseIndexes.get(courseId);
+        if (course == null || !current.bloom.mightContain(studentId, course)) {
+            return false;
+        }
+        int[] courses = current.byStudent.get(studentId);
+        return courses != null && Arrays.binarySearch(courses, course) >= 0;
+    }
+
+    /**
+     * Records an active enrollment.
+     */
+    public synchronized void add(String studentId, String courseId) {
+        apply(state, studentId, courseId, true);
+        if (pending != null) {
+            pending.add(new Change(studentId, courseId, true));
+        }
+    }
+
+    /**
+     * Records that an enrollment is no longer active.
+     */
+    public synchronized void remove(String studentId, String courseId) {
+        apply(state, studentId, courseId, false);
+        if (pending != null) {
+            pending.add(new Change(studentId, courseId, false));
+        }
+    }
+
+    /**
+     * Forgets every enrollment of a deleted student.
+     */
+    public synchronized void removeStudent(String studentId) {
+        state.byStudent.remove(studentId);
+        if (pending != null) {
+            pending.add(new Change(studentId, null, false));
+        }
+    }
+
+    /**
+     * Forgets every enrollment in a deleted course. Only the course's
+     * surrogate is dropped; the stale ints left in student arrays can no
+     * longer be reached, and a new course with the same id gets a new one.
+     */
+    public synchronized void removeCourse(String courseId) {
+        state.courseIndexes.remove(courseId);
+        if (pending != null) {
+            pending.add(new Change(null, courseId, false));
+        }
+    }
+
+    /**
+     * Replaces the index with the enrollments read from the source. Changes
+     * recorded while the source is being read are applied on top, so a
+     * concurrent enroll or drop is not lost. If the source fails, the
+     * current index is kept.
+     * @param expectedSize Approximate number of active enrollments, used to size the Bloom filter
+     * @return Number of enrollments loaded
+     */
+    public int load(Source source, int expectedSize) throws SQLException {
+        synchronized (loadLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            State loaded = new State(expectedSize);
+            Builder builder = new Builder(loaded);
+            try {
+                source.forEachEnrollment(builder::add);
+                builder.finish();
+            } catch (SQLException | RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                for (Change change : pending) {
+                    change.replay(this, loaded);
+                }
+                pending = null;
+                state = loaded;
+            }
+            return builder.count;
+        }
+    }
+
+    public synchronized void clear() {
+        state = new State(0);
+    }
+
+    /**
+     * @return Number of students with at least one known enrollment
+     */
+    public int studentCount() {
+        return state.byStudent.size();
+    }
+
+    @Override
+    public String toString() {
+        State current = state;
+        return "EnrollmentIndex{students=" + current.byStudent.size()
+                + ", courses=" + current.courseIndexes.size() + "}";
+    }
+
+    /**
+     * Caller must hold the lock.
+     */
+    private void apply(State target, String studentId, String courseId, boolean active) {
+        Integer course = active
+                ? target.courseIndexes.computeIfAbsent(courseId, id -> nextCourseIndex++)
+                : target.courseIndexes.get(courseId);
+        if (course == null) {
+            return;
+        }
+        int[] courses = target.byStudent.getOrDefault(studentId, NO_COURSES);
+        int position = Arrays.binarySearch(courses, course);
+        if (active && position < 0) {
+            int insertAt = -position - 1;
+            int[] grown = new int[courses.length + 1];
+            System.arraycopy(courses, 0, grown, 0, insertAt);
+            grown[insertAt] = course;
+            System.arraycopy(courses, insertAt, grown, insertAt + 1, courses.length - insertAt);
+            // Bloom bit first, so a reader that sees the array also passes the filter
+            target.bloom.put(studentId, course);
+            target.byStudent.put(studentId, grown);
+        } else if (!active && position >= 0) {
+            if (courses.length == 1) {
+                target.byStudent.remove(studentId);
+            } else {
+                int[] shrunk = new int[courses.length - 1];
+                System.arraycopy(courses, 0, shrunk, 0, position);
+                System.arraycopy(courses, position + 1, shrunk, position, courses.length - position - 1);
+                target.byStudent.put(studentId, shrunk);
+            }
+            // Bloom filters cannot forget; the stale bits only cost a lookup until the next load
+        }
+    }
+
+    /**
+     * Collects each student's courses unsorted, then sorts them once.
+     */
+    private class Builder {
+        private final State target;
+        private final Map<String, int[]> growing = new HashMap<>();
+        private final Map<String, Integer> sizes = new HashMap<>();
+        private int count;
+
+        Builder(State target) {
+            this.target = target;
+        }
+
+        void add(String studentId, String courseId) {
+            Integer course;
+            synchronized (EnrollmentIndex.this) {
+                course = target.courseIndexes.computeIfAbsent(courseId, id -> nextCourseIndex++);
+            }
+            int size = sizes.getOrDefault(studentId, 0);
+            int[] courses = growing.get(studentId);
+            if (courses == null) {
+                courses = new int[4];
+                growing.put(studentId, courses);
+            } else if (size == courses.length) {
+                courses = Arrays.copyOf(courses, size * 2);
+                growing.put(studentId, courses);
+            }
+            courses[size] = course;
+            sizes.put(studentId, size + 1);
+            target.bloom.put(studentId, course);
+            count++;
+        }
+
+        void finish() {
+            growing.forEach((studentId, courses) -> {
+                int[] exact = Arrays.copyOf(courses, sizes.get(studentId));
+                Arrays.sort(exact);
+                target.byStudent.put(studentId, dedupe(exact));
+            });
+        }
+
+        private int[] dedupe(int[] sorted) {
+            int length = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[length++] = sorted[i];
+                }
+            }
+            return length == sorted.length ? sorted : Arrays.copyOf(sorted, length);
+        }
+    }
+
+    private static class State {
+        private final ConcurrentHashMap<String, Integer> courseIndexes = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, int[]> byStudent = new ConcurrentHashMap<>();
+        private final BloomFilter bloom;
+
+        State(int expectedSize) {
+            this.bloom = new BloomFilter(expectedSize);
+        }
+    }
+
+    private static class Change {
+        private final String studentId;
+        private final String courseId;
+        private final boolean active;
+
+        Change(String studentId, String courseId, boolean active) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.active = active;
+        }
+
+        void replay(EnrollmentIndex index, State target) {
+            if (courseId == null) {
+                target.byStudent.remove(studentId);
+            } else if (studentId == null) {
+                target.courseIndexes.remove(courseId);
+            } else {
+                index.apply(target, studentId, courseId, active);
+            }
+        }
+    }
+
+    /**
+     * Fixed-size Bloom filter over (student, course surrogate) pairs. Bits are
+     * only ever set, with atomic updates, so readers need no lock.
+     */
+    private static class BloomFilter {
+        private final AtomicLongArray words;
+        private final int mask;
+
+        BloomFilter(int expectedSize) {
+            long wanted = Math.max(MIN_BLOOM_BITS, (long) expectedSize * BITS_PER_ENTRY);
+            int bits = Integer.highestOneBit((int) Math.min(wanted, 1 << 30));
+            if (bits < wanted && bits < (1 << 30)) {
+                bits <<= 1;
+            }
+            this.words = new AtomicLongArray(bits >>> 6);
+            this.mask = bits - 1;
+        }
+
+        void put(String studentId, int course) {
+            long hash = hash(studentId, course);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long bitMask = 1L << bit;
+                int word = bit >>> 6;
+                long current = words.get(word);
+                while ((current & bitMask) == 0 && !words.compareAndSet(word, current, current | bitMask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String studentId, int course) {
+            long hash = hash(studentId, course);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 64-bit finalizer from MurmurHash3 over the two keys.
+         */
+        private static long hash(String studentId, int course) {
+            long h = ((long) studentId.hashCode() << 32) ^ (course & 0xffffffffL);
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h | 1L << 32;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.university.cache;
+
+import com.university.util.Env;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-course seat counts held in memory so that enroll attempts on a full
+ * course are turned away without touching the database.
+ *
+ * Reservations are lock-free compare-and-set operations on one counter per
+ * course. The counts are a filter, not the authority: the database applies
+ * its own conditional update, and whenever it disagrees the DAO reloads the
+ * course's counter from it. A "full" answer is only trusted for a short time
+ * after the counter was loaded, so seats freed by another process are found
+ * again. Courses that were never loaded are untracked and always go to the
+ * database.
+ */
+public class SeatCounter {
+    /** Capacity value meaning "no limit". */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * Outcome of a reservation attempt.
+     */
+    public enum Reservation {
+        /** A seat was taken in memory; release it if the database write does not happen. */
+        RESERVED,
+        /** The course is full; no need to ask the database. */
+        FULL,
+        /** Untracked course or stale count; nothing was taken, let the database decide. */
+        UNCHECKED
+    }
+
+    private final ConcurrentHashMap<String, Seats> seats = new ConcurrentHashMap<>();
+    private final long fullRecheckMillis;
+
+    private static class Holder {
+        private static final SeatCounter INSTANCE = new SeatCounter(Env.getLong("SEAT_FULL_RECHECK_MS", 1000));
+    }
+
+    /**
+     * @return Counter shared by all EnrollmentDAO instances
+     */
+    public static SeatCounter getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param fullRecheckMillis How long after loading a course's count a "full" answer is trusted
+     */
+    public SeatCounter(long fullRecheckMillis) {
+        this.fullRecheckMillis = fullRecheckMillis;
+    }
+
+    /**
+     * Takes a seat if the course has one free.
+     */
+    public Reservation tryReserve(String courseId) {
+        Seats course = seats.get(courseId);
+        if (course == null) {
+            return Reservation.UNCHECKED;
+        }
+        while (true) {
+            int taken = course.taken.get();
+            if (taken >= course.capacity) {
+                return System.currentTimeMillis() - course.loadedAt < fullRecheckMillis
+                        ? Reservation.FULL : Reservation.UNCHECKED;
+            }
+            if (course.taken.compareAndSet(taken, taken + 1)) {
+                return Reservation.RESERVED;
+            }
+        }
+    }
+
+    /**
+     * Gives back a seat taken by tryReserve, or freed by a drop.
+     */
+    public void release(String courseId) {
+        Seats course = seats.get(courseId);
+        if (course != null) {
+            course.taken.getAndUpdate(taken -> taken > 0 ? taken - 1 : 0);
+        }
+    }
+
+    /**
+     * Replaces a course's counter with the database's figures.
+     * @param capacity Seat limit, or null for unlimited
+     */
+    public void load(String courseId, Integer capacity, int taken) {
+        seats.put(courseId, new Seats(capacity != null ? capacity : UNLIMITED, taken));
+    }
+
+    /**
+     * Changes a course's limit, keeping the current count.
+     * @param capacity Seat limit, or null for unlimited
+     */
+    public void setCapacity(String courseId, Integer capacity) {
+        Seats course = seats.get(courseId);
+        if (course != null) {
+            course.capacity = capacity != null ? capacity : UNLIMITED;
+        }
+    }
+
+    public void remove(String courseId) {
+        seats.remove(courseId);
+    }
+
+    public void clear() {
+        seats.clear();
+    }
+
+    /**
+     * @return Free seats, UNLIMITED for courses without a limit, or -1 if the course is untracked
+     */
+    public int getAvailableSeats(String courseId) {
+        Seats course = seats.get(courseId);
+        if (course == null) {
+            return -1;
+        }
+        int capacity = course.capacity;
+        if (capacity == UNLIMITED) {
+            return UNLIMITED;
+        }
+        return Math.max(0, capacity - course.taken.get());
+    }
+
+    public int size() {
+        return seats.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SeatCounter{courses=" + seats.size() + "}";
+    }
+
+    private static class Seats {
+        private volatile int capacity;
+        private final AtomicInteger taken;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Seats(int capacity, int taken) {
+            this.capacity = capacity;
+            this.taken = new AtomicInteger(taken);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.university.cache;
+
+import com.university.model.GraduateStudent;
+import com.university.model.Student;
+import com.university.model.UndergraduateStudent;
+import com.university.util.Env;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded read-through cache of students, reachable by both the internal id
+ * and the student number.
+ *
+ * Entries are evicted least-recently-used once the cache is full and expire
+ * after a TTL. Lookups that find nothing are remembered for a shorter TTL so
+ * repeated searches for a missing student do not hit the database. Writers
+ * must call the invalidate methods; StudentDAO does this for every write.
+ *
+ * The cache keeps its own copy of each student and hands every caller a
+ * fresh copy of that, so callers may edit what they get like a freshly
+ * loaded student; save changes through StudentDAO, which evicts the entry.
+ * Copies carry the stored fields only, not enrollments or grades.
+ */
+public class StudentCache {
+
+    /**
+     * Loads a student from the database on a cache miss.
+     */
+    public interface Loader {
+        Student load(String key) throws SQLException;
+    }
+
+    private static final String ID_KEY = "id:";
+    private static final String STUDENT_ID_KEY = "sid:";
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LinkedHashMap<String, CachedStudent> byId;
+    private final Map<String, String> idByStudentId = new HashMap<>();
+    private final LinkedHashMap<String, Long> missingKeys;
+    private volatile boolean enabled;
+    /** Bumped on every invalidation so that a load racing with a write is not cached. */
+    private long generation;
+    private long hitCount;
+    private long missCount;
+    private long negativeHitCount;
+    private long evictionCount;
+
+    private static class Holder {
+        private static final StudentCache INSTANCE = new StudentCache(
+                Env.getInt("STUDENT_CACHE_SIZE", 10_000),
+                Env.getLong("STUDENT_CACHE_TTL_MS", 5 * 60_000),
+                Env.getLong("STUDENT_CACHE_NEGATIVE_TTL_MS", 30_000),
+                Env.getBoolean("STUDENT_CACHE_ENABLED", true));
+    }
+
+    /**
+     * @return Cache shared by all StudentDAO instances
+     */
+    public static StudentCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public StudentCache(int maxSize, long ttlMillis, long negativeTtlMillis, boolean enabled) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.enabled = enabled;
+        this.byId = new LinkedHashMap<String, CachedStudent>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStudent> eldest) {
+                if (size() <= StudentCache.this.maxSize) {
+                    return false;
+                }
+                idByStudentId.remove(eldest.getValue().studentId);
+                evictionCount++;
+                return true;
+            }
+        };
+        this.missingKeys = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > StudentCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets a student by internal id, loading it on a miss.
+     * @return Student, or null if it does not exist
+     * @throws SQLException if the loader fails; failures are not cached
+     */
+    public Student getById(String id, Loader loader) throws SQLException {
+        return get(ID_KEY + id, id, loader);
+    }
+
+    /**
+     * Gets a student by student number, loading it on a miss.
+     * @return Student, or null if it does not exist
+     * @throws SQLException if the loader fails; failures are not cached
+     */
+    public Student getByStudentId(String studentId, Loader loader) throws SQLException {
+        return get(STUDENT_ID_KEY + studentId, studentId, loader);
+    }
+
+    /**
+     * Drops a student and any negative entries for its keys. Call after the
+     * student is created, updated or deleted.
+     */
+    public synchronized void invalidate(String id, String studentId) {
+        generation++;
+        if (id != null) {
+            CachedStudent removed = byId.remove(id);
+            if (removed != null) {
+                idByStudentId.remove(removed.studentId);
+            }
+            missingKeys.remove(ID_KEY + id);
+        }
+        if (studentId != null) {
+            String cachedId = idByStudentId.remove(studentId);
+            if (cachedId != null) {
+                byId.remove(cachedId);
+            }
+            missingKeys.remove(STUDENT_ID_KEY + studentId);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        byId.clear();
+        idByStudentId.clear();
+        missingKeys.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns the cache on or off. Disabling it also empties it.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidateAll();
+        }
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getNegativeHitCount() {
+        return negativeHitCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Fraction of lookups answered without the database, counting negative hits.
+     * @return Hit ratio between 0 and 1
+     */
+    public synchronized double getHitRatio() {
+        long total = hitCount + negativeHitCount + missCount;
+        return total == 0 ? 0.0 : (double) (hitCount + negativeHitCount) / total;
+    }
+
+    private Student get(String cacheKey, String key, Loader loader) throws SQLException {
+        if (!enabled) {
+            return loader.load(key);
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            CachedStudent cached = lookup(cacheKey, now);
+            if (cached != null) {
+                hitCount++;
+                return copyOf(cached.student);
+            }
+            Long missingUntil = missingKeys.get(cacheKey);
+            if (missingUntil != null) {
+                if (missingUntil > now) {
+                    negativeHitCount++;
+                    return null;
+                }
+                missingKeys.remove(cacheKey);
+            }
+            missCount++;
+            loadGeneration = generation;
+        }
+
+        // Load outside the lock so a slow query does not block other lookups.
+        Student student = loader.load(key);
+
+        synchronized (this) {
+            if (enabled && generation == loadGeneration) {
+                long now = System.currentTimeMillis();
+                if (student != null) {
+                    put(copyOf(student), now);
+                } else if (negativeTtlMillis > 0) {
+                    missingKeys.put(cacheKey, now + negativeTtlMillis);
+                }
+            }
+        }
+        return student;
+    }
+
+    private CachedStudent lookup(String cacheKey, long now) {
+        String id = cacheKey.startsWith(ID_KEY)
+                ? cacheKey.substring(ID_KEY.length())
+                : idByStudentId.get(cacheKey.substring(STUDENT_ID_KEY.length()));
+        if (id == null) {
+            return null;
+        }
+        CachedStudent cached = byId.get(id);
+        if (cached != null && cached.expiresAt <= now) {
+            byId.remove(id);
+            idByStudentId.remove(cached.studentId);
+            return null;
+        }
+        return cached;
+    }
+
+    private void put(Student student, long now) {
+        CachedStudent previous = byId.put(student.getId(), new CachedStudent(student, now + ttlMillis));
+        if (previous != null && previous.studentId != null) {
+            idByStudentId.remove(previous.studentId);
+        }
+        if (student.getStudentId() != null) {
+            idByStudentId.put(student.getStudentId(), student.getId());
+        }
+        missingKeys.remove(ID_KEY + student.getId());
+        missingKeys.remove(STUDENT_ID_KEY + student.getStudentId());
+    }
+
+    /**
+     * Copies the fields StudentDAO loads, keeping the student's type.
+     */
+    private static Student copyOf(Student source) {
+        Student copy;
+        if (source instanceof GraduateStudent) {
+            GraduateStudent graduate = (GraduateStudent) source;
+            GraduateStudent gradCopy = new GraduateStudent(source.getId(), source.getFirstName(), source.getLastName(),
+                    source.getEmail(), source.getPhoneNumber(), source.getStudentId(), source.getMajor(),
+                    source.getYearLevel());
+            gradCopy.setThesisTitle(graduate.getThesisTitle());
+            gradCopy.setSupervisor(graduate.getSupervisor());
+            gradCopy.setDegreeProgram(graduate.getDegreeProgram());
+            copy = gradCopy;
+        } else if (source instanceof UndergraduateStudent) {
+            UndergraduateStudent undergraduate = (UndergraduateStudent) source;
+            UndergraduateStudent undergradCopy = new UndergraduateStudent(source.getId(), source.getFirstName(),
+                    source.getLastName(), source.getEmail(), source.getPhoneNumber(), source.getStudentId(),
+                    source.getMajor(), source.getYearLevel());
+            undergradCopy.setAdvisor(undergraduate.getAdvisor());
+            undergradCopy.setHonorsStudent(undergraduate.isHonorsStudent());
+            copy = undergradCopy;
+        } else {
+            copy = new Student(source.getId(), source.getFirstName(), source.getLastName(), source.getEmail(),
+                    source.getPhoneNumber(), source.getStudentId(), source.getMajor(), source.getYearLevel());
+        }
+        copy.setGpa(source.getGpa());
+        return copy;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("StudentCache{size=%d, hits=%d, negativeHits=%d, misses=%d, hitRatio=%.2f, evictions=%d}",
+                byId.size(), hitCount, negativeHitCount, missCount, getHitRatio(), evictionCount);
+    }
+
+    private static class CachedStudent {
+        private final Student student;
+        /** Key of this entry in idByStudentId, as it was when cached */
+        private final String studentId;
+        private final long expiresAt;
+
+        CachedStudent(Student student, long expiresAt) {
+            this.student = student;
+            this.studentId = student.getStudentId();
+            this.expiresAt = expiresAt;
+        }
+    }
+}
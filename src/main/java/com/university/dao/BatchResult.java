@@ -0,0 +1,77 @@
+package com.university.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk write. Rows are reported by their position in the input
+ * collection, so callers can match failures back to what they submitted.
+ */
+public class BatchResult {
+    private int successCount;
+    private final List<RowFailure> failures = new ArrayList<>();
+    
+    void recordSuccess() {
+        successCount++;
+    }
+    
+    void recordFailure(int index, String key, String message) {
+        failures.add(new RowFailure(index, key, message));
+    }
+    
+    void merge(BatchResult other) {
+        successCount += other.successCount;
+        failures.addAll(other.failures);
+    }
+    
+    /**
+     * Merges the result of writing a subset of the rows.
+     * @param positions Index in the full input of each row of the subset
+     */
+    void merge(BatchResult other, int[] positions) {
+        successCount += other.successCount;
+        for (RowFailure failure : other.failures) {
+            failures.add(new RowFailure(positions[failure.getIndex()], failure.getKey(), failure.getMessage()));
+        }
+    }
+    
+    public int getSuccessCount() { return successCount; }
+    
+    public int getFailureCount() { return failures.size(); }
+    
+    public List<RowFailure> getFailures() { return Collections.unmodifiableList(failures); }
+    
+    public boolean isFullySuccessful() { return failures.isEmpty(); }
+    
+    @Override
+    public String toString() {
+        return String.format("BatchResult{succeeded=%d, failed=%d}", successCount, failures.size());
+    }
+    
+    /**
+     * A row that could not be written, with the reason reported by the database.
+     */
+    public static class RowFailure {
+        private final int index;
+        private final String key;
+        private final String message;
+        
+        public RowFailure(int index, String key, String message) {
+            this.index = index;
+            this.key = key;
+            this.message = message;
+        }
+        
+        public int getIndex() { return index; }
+        
+        public String getKey() { return key; }
+        
+        public String getMessage() { return message; }
+        
+        @Override
+        public String toString() {
+            return String.format("RowFailure{index=%d, key='%s', message='%s'}", index, key, message);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.university.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs one parameterized statement over many rows using JDBC batching, one
+ * transaction per chunk. If a chunk fails as a whole it is rolled back and
+ * replayed row by row behind savepoints, so one bad row only costs itself.
+ */
+class BatchWriter {
+    
+    /**
+     * Binds one row's values onto the statement.
+     */
+    interface Binder<T> {
+        void bind(PreparedStatement stmt, T row) throws SQLException;
+    }
+    
+    private BatchWriter() {
+    }
+    
+    /**
+     * Writes all rows and reports per-row outcomes. A row counts as failed if
+     * the database rejects it or if it affects no rows.
+     * @param conn Connection to write on; its auto-commit flag is restored afterwards
+     * @param sql Statement to execute once per row
+     * @param rows Rows to write
+     * @param batchSize Rows per batch and per commit
+     * @param binder Binds a row onto the statement
+     * @param keyOf Identifies a row in failure reports
+     * @return Per-row results
+     */
+    static <T> BatchResult execute(Connection conn, String sql, List<T> rows, int batchSize,
+                                   Binder<T> binder, Function<T, String> keyOf) {
+        BatchResult result = new BatchResult();
+        int chunkSize = Math.max(1, batchSize);
+        int start = 0;
+        
+        try {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (; start < rows.size(); start += chunkSize) {
+                    List<T> chunk = rows.subList(start, Math.min(rows.size(), start + chunkSize));
+                    writeChunk(conn, stmt, chunk, start, binder, keyOf, result);
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            // The connection itself failed; nothing from the current chunk onward was committed.
+            System.err.println("Error executing batch: " + e.getMessage());
+            for (int i = start; i < rows.size(); i++) {
+                result.recordFailure(i, keyOf.apply(rows.get(i)), e.getMessage());
+            }
+        }
+        
+        return result;
+    }
+    
+    private static <T> void writeChunk(Connection conn, PreparedStatement stmt, List<T> chunk, int offset,
+                                       Binder<T> binder, Function<T, String> keyOf,
+                                       BatchResult result) throws SQLException {
+        int[] counts;
+        try {
+            for (T row : chunk) {
+                binder.bind(stmt, row);
+                stmt.addBatch();
+            }
+            counts = stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            stmt.clearBatch();
+            writeRowByRow(conn, stmt, chunk, offset, binder, keyOf, result);
+            return;
+        }
+        
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                result.recordSuccess();
+            } else {
+                result.recordFailure(offset + i, keyOf.apply(chunk.get(i)), "No rows affected");
+            }
+        }
+    }
+    
+    private static <T> void writeRowByRow(Connection conn, PreparedStatement stmt, List<T> chunk, int offset,
+                                          Binder<T> binder, Function<T, String> keyOf,
+                                          BatchResult result) throws SQLException {
+        // Outcomes only count once the chunk is committed.
+        BatchResult chunkResult = new BatchResult();
+        for (int i = 0; i < chunk.size(); i++) {
+            T row = chunk.get(i);
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                binder.bind(stmt, row);
+                if (stmt.executeUpdate() > 0) {
+                    chunkResult.recordSuccess();
+                } else {
+                    chunkResult.recordFailure(offset + i, keyOf.apply(row), "No rows affected");
+                }
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                chunkResult.recordFailure(offset + i, keyOf.apply(row), e.getMessage());
+            }
+        }
+        conn.commit();
+        result.merge(chunkResult);
+    }
+}
@@ -0,0 +1,64 @@
+package com.university.dao;
+
+import com.university.util.Env;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows whose timestamp falls in the window (watermark, end] for
+ * delta sync, and returns the window end as the next watermark.
+ *
+ * updated_at and deleted_at are set to the writing transaction's start time
+ * but only become visible at commit. A window closing at "now" could skip a
+ * row committed a moment later with an older timestamp, so the window ends
+ * SETTLE_MILLIS behind the database clock. Writes from transactions that run
+ * longer than that can still be missed.
+ */
+class ChangeFeed {
+    static final long SETTLE_MILLIS = Env.getLong("CHANGE_FEED_SETTLE_MS", 30_000);
+
+    private ChangeFeed() {
+    }
+
+    /**
+     * Binds a change query's parameters, including the window bounds.
+     */
+    interface WindowBinder {
+        void bind(PreparedStatement stmt, Timestamp start, Timestamp end) throws SQLException;
+    }
+
+    /**
+     * Runs a change query for the window following the watermark.
+     * @param watermark Exclusive lower bound, or null to read everything
+     * @param binder Binds the window start (exclusive) and end (inclusive)
+     * @return Watermark for the next call
+     */
+    static <T> Instant forEachChange(Connection conn, String sql, Instant watermark, int fetchSize,
+                                     WindowBinder binder, CursorQuery.RowMapper<T> mapper,
+                                     Consumer<? super T> action) throws SQLException {
+        Timestamp end = windowEnd(conn);
+        Timestamp start = watermark != null ? Timestamp.from(watermark) : new Timestamp(0);
+        if (!end.after(start)) {
+            // Called again within the settle time; nothing new can be read safely yet
+            return watermark;
+        }
+
+        CursorQuery.forEachRow(conn, sql, fetchSize, stmt -> binder.bind(stmt, start, end), mapper, action);
+        return end.toInstant();
+    }
+
+    static Timestamp windowEnd(Connection conn) throws SQLException {
+        // The database clock, not ours, is what stamped the rows
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT LOCALTIMESTAMP");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new Timestamp(rs.getTimestamp(1).getTime() - SETTLE_MILLIS);
+        }
+    }
+}
@@ -1,23 +1,104 @@
 package com.university.dao;
 
+import com.university.cache.CourseCatalog;
+import com.university.cache.EnrollmentIndex;
+import com.university.cache.SeatCounter;
 import com.university.database.DatabaseConnection;
 import com.university.model.Course;
 import com.university.model.Instructor;
+import com.university.util.Env;
 
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class CourseDAO {
+    private static final int MULTI_GET_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    
+    /**
+     * Select list expected by mapResultSetToCourse, for queries that alias
+     * courses as c and instructors as i.
+     */
+    static final String COURSE_COLUMNS = "c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
+            "i.employee_id, i.department as instructor_dept, i.title, i.salary, i.years_of_experience";
+    
     private DatabaseConnection dbConnection;
+    private boolean catalogEnabled;
     
     public CourseDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.catalogEnabled = Env.getBoolean("COURSE_CATALOG_ENABLED", true);
+    }
+    
+    /**
+     * The in-memory catalog shared by all CourseDAO instances, created on first use.
+     */
+    private static class CatalogHolder {
+        private static final CourseCatalog CATALOG = createCatalog();
+        
+        private static CourseCatalog createCatalog() {
+            DatabaseConnection dbConnection = DatabaseConnection.getInstance();
+            CourseCatalog catalog = new CourseCatalog(new CourseCatalog.Loader() {
+                @Override
+                public List<Course> loadAll() throws SQLException {
+                    return loadAllCourses(dbConnection);
+                }
+                
+                @Override
+                public CourseCatalog.Watermark currentWatermark() throws SQLException {
+                    return loadWatermark(dbConnection);
+                }
+            });
+            long pollMillis = Env.getLong("COURSE_CATALOG_POLL_MS", 0);
+            if (pollMillis > 0) {
+                catalog.startPolling(pollMillis);
+            }
+            return catalog;
+        }
+    }
+    
+    public static CourseCatalog getCatalog() {
+        return CatalogHolder.CATALOG;
+    }
+    
+    public boolean isCatalogEnabled() {
+        return catalogEnabled;
+    }
+    
+    /**
+     * Switches the read methods between the in-memory catalog and direct queries.
+     */
+    public void setCatalogEnabled(boolean catalogEnabled) {
+        this.catalogEnabled = catalogEnabled;
+    }
+    
+    private static CourseCatalog.Watermark loadWatermark(DatabaseConnection dbConnection) throws SQLException {
+        String sql = "SELECT (SELECT MAX(updated_at) FROM courses) AS courses_updated, " +
+                    "(SELECT MAX(updated_at) FROM instructors) AS instructors_updated, " +
+                    "(SELECT COUNT(*) FROM courses) AS course_count";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            return new CourseCatalog.Watermark(rs.getTimestamp("courses_updated"),
+                                               rs.getTimestamp("instructors_updated"),
+                                               rs.getInt("course_count"));
+        }
     }
     
     public boolean createCourse(Course course) {
         String sql = "INSERT INTO courses (course_id, course_name, description, credits, " +
-                    "department, instructor_id, schedule, location) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                    "department, instructor_id, schedule, location, capacity, term_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, current_term_id()))";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -30,17 +111,34 @@ public class CourseDAO {
             stmt.setString(6, course.getInstructor() != null ? course.getInstructor().getId() : null);
             stmt.setString(7, course.getSchedule());
             stmt.setString(8, course.getLocation());
+            setNullableInt(stmt, 9, course.getCapacity());
+            setNullableInt(stmt, 10, course.getTermId());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                SeatCounter.getInstance().load(course.getCourseId(), course.getCapacity(), 0);
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error creating course: " + e.getMessage());
             return false;
+        } finally {
+            getCatalog().invalidate();
         }
     }
     
     public Course getCourseById(String courseId) {
+        if (catalogEnabled) {
+            try {
+                Course course = getCatalog().snapshot().getCourse(courseId);
+                return course != null ? copyOf(course, new HashMap<>()) : null;
+            } catch (SQLException e) {
+                System.err.println("Error retrieving course: " + e.getMessage());
+                return null;
+            }
+        }
+        
         String sql = "SELECT c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
                     "i.employee_id, i.department as instructor_dept, i.title, i.salary, " +
                     "i.years_of_experience FROM courses c " +
@@ -63,32 +161,152 @@ public class CourseDAO {
         return null;
     }
     
+    /**
+     * Loads many courses by id in a constant number of round trips, binding
+     * the ids as one array parameter per chunk.
+     * @param courseIds Course ids; duplicates are ignored
+     * @return Courses found, in the order their ids were given
+     */
+    public List<Course> getCoursesByIds(Collection<String> courseIds) {
+        if (catalogEnabled) {
+            try {
+                CourseCatalog.Snapshot snapshot = getCatalog().snapshot();
+                List<Course> courses = new ArrayList<>();
+                for (String courseId : new LinkedHashSet<>(courseIds)) {
+                    Course course = snapshot.getCourse(courseId);
+                    if (course != null) {
+                        courses.add(course);
+                    }
+                }
+                return copyAll(courses);
+            } catch (SQLException e) {
+                System.err.println("Error retrieving courses by ids: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+        
+        String sql = "SELECT c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
+                    "i.employee_id, i.department as instructor_dept, i.title, i.salary, " +
+                    "i.years_of_experience FROM courses c " +
+                    "LEFT JOIN instructors i ON c.instructor_id = i.id WHERE c.course_id = ANY(?)";
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(courseIds));
+        Map<String, Course> found = new HashMap<>();
+        Map<String, Instructor> instructors = new HashMap<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            for (int start = 0; start < distinctIds.size(); start += MULTI_GET_CHUNK_SIZE) {
+                List<String> chunk = distinctIds.subList(start, Math.min(distinctIds.size(), start + MULTI_GET_CHUNK_SIZE));
+                Array idArray = conn.createArrayOf("varchar", chunk.toArray());
+                stmt.setArray(1, idArray);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Course course = mapResultSetToCourse(rs, instructors);
+                        found.put(course.getCourseId(), course);
+                    }
+                }
+                idArray.free();
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error retrieving courses by ids: " + e.getMessage());
+        }
+        
+        List<Course> courses = new ArrayList<>(found.size());
+        for (String courseId : distinctIds) {
+            Course course = found.get(courseId);
+            if (course != null) {
+                courses.add(course);
+            }
+        }
+        return courses;
+    }
+    
     public List<Course> getAllCourses() {
+        try {
+            if (catalogEnabled) {
+                return copyAll(getCatalog().snapshot().getAllCourses());
+            }
+            return loadAllCourses(dbConnection);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving all courses: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    private static List<Course> loadAllCourses(DatabaseConnection dbConnection) throws SQLException {
         String sql = "SELECT c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
                     "i.employee_id, i.department as instructor_dept, i.title, i.salary, " +
                     "i.years_of_experience FROM courses c " +
                     "LEFT JOIN instructors i ON c.instructor_id = i.id " +
                     "ORDER BY c.course_name";
         List<Course> courses = new ArrayList<>();
+        Map<String, Instructor> instructors = new HashMap<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                courses.add(mapResultSetToCourse(rs));
+                courses.add(mapResultSetToCourse(rs, instructors));
+            }
+        }
+        
+        return courses;
+    }
+    
+    /**
+     * Gets one page of courses ordered by course name and id.
+     * @param pageToken Token from the previous page, or null for the first page
+     * @param pageSize Maximum number of courses on the page
+     * @return Page of courses and the token for the next one
+     */
+    public Page<Course> getCoursesPage(String pageToken, int pageSize) {
+        String[] after = pageToken != null ? Page.decodeToken(pageToken, 2) : null;
+        String sql = "SELECT c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
+                    "i.employee_id, i.department as instructor_dept, i.title, i.salary, " +
+                    "i.years_of_experience FROM courses c " +
+                    "LEFT JOIN instructors i ON c.instructor_id = i.id " +
+                    (after != null ? "WHERE (c.course_name, c.course_id) > (?, ?) " : "") +
+                    "ORDER BY c.course_name, c.course_id LIMIT ?";
+        List<Course> courses = new ArrayList<>();
+        Map<String, Instructor> instructors = new HashMap<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (after != null) {
+                stmt.setString(index++, after[0]);
+                stmt.setString(index++, after[1]);
+            }
+            // One extra row tells us whether another page exists
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                courses.add(mapResultSetToCourse(rs, instructors));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving all courses: " + e.getMessage());
+            System.err.println("Error retrieving courses page: " + e.getMessage());
+            return Page.empty();
         }
         
-        return courses;
+        if (courses.size() <= pageSize) {
+            return new Page<>(courses, null);
+        }
+        
+        List<Course> items = new ArrayList<>(courses.subList(0, pageSize));
+        Course last = items.get(items.size() - 1);
+        return new Page<>(items, Page.encodeToken(last.getCourseName(), last.getCourseId()));
     }
     
     public boolean updateCourse(Course course) {
         String sql = "UPDATE courses SET course_name = ?, description = ?, credits = ?, " +
-                    "department = ?, instructor_id = ?, schedule = ?, location = ? WHERE course_id = ?";
+                    "department = ?, instructor_id = ?, schedule = ?, location = ?, capacity = ? WHERE course_id = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -100,14 +318,20 @@ public class CourseDAO {
             stmt.setString(5, course.getInstructor() != null ? course.getInstructor().getId() : null);
             stmt.setString(6, course.getSchedule());
             stmt.setString(7, course.getLocation());
-            stmt.setString(8, course.getCourseId());
+            setNullableInt(stmt, 8, course.getCapacity());
+            stmt.setString(9, course.getCourseId());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                SeatCounter.getInstance().setCapacity(course.getCourseId(), course.getCapacity());
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error updating course: " + e.getMessage());
             return false;
+        } finally {
+            getCatalog().invalidate();
         }
     }
     
@@ -124,16 +348,60 @@ public class CourseDAO {
         } catch (SQLException e) {
             System.err.println("Error deleting course: " + e.getMessage());
             return false;
+        } finally {
+            getCatalog().invalidate();
+            SeatCounter.getInstance().remove(courseId);
+            EnrollmentIndex.getInstance().removeCourse(courseId);
+        }
+    }
+    
+    /**
+     * Streams courses created or updated after the watermark, including courses
+     * whose instructor changed, since the instructor is part of the course.
+     * Deleted courses are reported by TombstoneDAO. Reads the database, not
+     * the catalog.
+     * @param watermark Watermark returned by the previous call, or null to read all courses
+     * @param action Called once per changed course
+     * @return Watermark for the next call, or null if the query failed
+     */
+    public Instant changedSince(Instant watermark, Consumer<? super Course> action) {
+        String sql = "SELECT " + COURSE_COLUMNS + " FROM courses c " +
+                    "LEFT JOIN instructors i ON c.instructor_id = i.id " +
+                    "WHERE (c.updated_at > ? AND c.updated_at <= ?) " +
+                    "OR (i.updated_at > ? AND i.updated_at <= ?) " +
+                    "ORDER BY c.updated_at, c.course_id";
+        Map<String, Instructor> instructors = new HashMap<>();
+        
+        try (Connection conn = dbConnection.getConnection()) {
+            return ChangeFeed.forEachChange(conn, sql, watermark, DEFAULT_FETCH_SIZE, (stmt, start, end) -> {
+                stmt.setTimestamp(1, start);
+                stmt.setTimestamp(2, end);
+                stmt.setTimestamp(3, start);
+                stmt.setTimestamp(4, end);
+            }, rs -> mapResultSetToCourse(rs, instructors), action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming changed courses: " + e.getMessage());
+            return null;
         }
     }
     
     public List<Course> getCoursesByDepartment(String department) {
+        if (catalogEnabled) {
+            try {
+                return copyAll(getCatalog().snapshot().findByDepartment(department));
+            } catch (SQLException e) {
+                System.err.println("Error searching courses by department: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+        
         String sql = "SELECT c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
                     "i.employee_id, i.department as instructor_dept, i.title, i.salary, " +
                     "i.years_of_experience FROM courses c " +
                     "LEFT JOIN instructors i ON c.instructor_id = i.id " +
                     "WHERE c.department ILIKE ? ORDER BY c.course_name";
         List<Course> courses = new ArrayList<>();
+        Map<String, Instructor> instructors = new HashMap<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -142,7 +410,7 @@ public class CourseDAO {
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                courses.add(mapResultSetToCourse(rs));
+                courses.add(mapResultSetToCourse(rs, instructors));
             }
             
         } catch (SQLException e) {
@@ -152,13 +420,61 @@ public class CourseDAO {
         return courses;
     }
     
+    /**
+     * Gets the courses offered in a term.
+     * @param termId Term ID
+     * @return Courses ordered by course name
+     */
+    public List<Course> getCoursesByTerm(int termId) {
+        if (catalogEnabled) {
+            try {
+                return copyAll(getCatalog().snapshot().findByTerm(termId));
+            } catch (SQLException e) {
+                System.err.println("Error retrieving courses by term: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+        
+        String sql = "SELECT " + COURSE_COLUMNS + " FROM courses c " +
+                    "LEFT JOIN instructors i ON c.instructor_id = i.id " +
+                    "WHERE c.term_id = ? ORDER BY c.course_name";
+        List<Course> courses = new ArrayList<>();
+        Map<String, Instructor> instructors = new HashMap<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, termId);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                courses.add(mapResultSetToCourse(rs, instructors));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error retrieving courses by term: " + e.getMessage());
+        }
+        
+        return courses;
+    }
+    
     public List<Course> getCoursesByInstructor(String instructorId) {
+        if (catalogEnabled) {
+            try {
+                return copyAll(getCatalog().snapshot().findByInstructor(instructorId));
+            } catch (SQLException e) {
+                System.err.println("Error retrieving courses by instructor: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+        
         String sql = "SELECT c.*, i.first_name, i.last_name, i.email, i.phone_number, " +
                     "i.employee_id, i.department as instructor_dept, i.title, i.salary, " +
                     "i.years_of_experience FROM courses c " +
                     "LEFT JOIN instructors i ON c.instructor_id = i.id " +
                     "WHERE c.instructor_id = ? ORDER BY c.course_name";
         List<Course> courses = new ArrayList<>();
+        Map<String, Instructor> instructors = new HashMap<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -167,7 +483,7 @@ public class CourseDAO {
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                courses.add(mapResultSetToCourse(rs));
+                courses.add(mapResultSetToCourse(rs, instructors));
             }
             
         } catch (SQLException e) {
@@ -177,7 +493,20 @@ public class CourseDAO {
         return courses;
     }
     
-    private Course mapResultSetToCourse(ResultSet rs) throws SQLException {
+    /**
+     * Maps a row selected with COURSE_COLUMNS. Package-private so joined
+     * queries in other DAOs build courses the same way.
+     */
+    static Course mapResultSetToCourse(ResultSet rs) throws SQLException {
+        return mapResultSetToCourse(rs, null);
+    }
+    
+    /**
+     * Maps a row selected with COURSE_COLUMNS, sharing one Instructor object
+     * per instructor id across all rows mapped with the same identity map.
+     * @param instructors Instructors already built for this query, or null
+     */
+    static Course mapResultSetToCourse(ResultSet rs, Map<String, Instructor> instructors) throws SQLException {
         String courseId = rs.getString("course_id");
         String courseName = rs.getString("course_name");
         String description = rs.getString("description");
@@ -187,26 +516,81 @@ public class CourseDAO {
         String location = rs.getString("location");
         
         Course course = new Course(courseId, courseName, description, credits, department, schedule, location);
+        int capacity = rs.getInt("capacity");
+        course.setCapacity(rs.wasNull() ? null : capacity);
+        course.setTermId(rs.getInt("term_id"));
         
         // Set instructor if available
         String instructorId = rs.getString("instructor_id");
         if (instructorId != null) {
-            String firstName = rs.getString("first_name");
-            String lastName = rs.getString("last_name");
-            String email = rs.getString("email");
-            String phoneNumber = rs.getString("phone_number");
-            String employeeId = rs.getString("employee_id");
-            String instructorDept = rs.getString("instructor_dept");
-            String title = rs.getString("title");
-            double salary = rs.getDouble("salary");
-            int yearsOfExperience = rs.getInt("years_of_experience");
-            
-            Instructor instructor = new Instructor(instructorId, firstName, lastName, email, 
-                                                 phoneNumber, employeeId, instructorDept, 
-                                                 title, salary, yearsOfExperience);
-            course.setInstructor(instructor);
+            Instructor instructor = instructors != null ? instructors.get(instructorId) : null;
+            if (instructor == null) {
+                instructor = mapResultSetToInstructor(rs, instructorId);
+                if (instructors != null) {
+                    instructors.put(instructorId, instructor);
+                }
+            }
+            instructor.assignToCourse(course);
         }
         
         return course;
     }
+    
+    /**
+     * Copies catalog courses so callers can edit them like freshly loaded
+     * ones without changing the snapshot every other reader shares.
+     */
+    private static List<Course> copyAll(List<Course> courses) {
+        Map<String, Instructor> instructors = new HashMap<>();
+        List<Course> copies = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            copies.add(copyOf(course, instructors));
+        }
+        return copies;
+    }
+    
+    /**
+     * @param instructors Instructors already copied for this call, shared across
+     *                    its courses the way mapResultSetToCourse shares them
+     */
+    private static Course copyOf(Course source, Map<String, Instructor> instructors) {
+        Course course = new Course(source.getCourseId(), source.getCourseName(), source.getDescription(),
+                source.getCredits(), source.getDepartment(), source.getSchedule(), source.getLocation());
+        course.setCapacity(source.getCapacity());
+        course.setTermId(source.getTermId());
+        
+        Instructor original = source.getInstructor();
+        if (original != null) {
+            Instructor instructor = instructors.computeIfAbsent(original.getId(), id ->
+                    new Instructor(id, original.getFirstName(), original.getLastName(), original.getEmail(),
+                            original.getPhoneNumber(), original.getEmployeeId(), original.getDepartment(),
+                            original.getTitle(), original.getSalary(), original.getYearsOfExperience()));
+            instructor.assignToCourse(course);
+        }
+        return course;
+    }
+    
+    private static void setNullableInt(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            stmt.setInt(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+    
+    private static Instructor mapResultSetToInstructor(ResultSet rs, String instructorId) throws SQLException {
+        String firstName = rs.getString("first_name");
+        String lastName = rs.getString("last_name");
+        String email = rs.getString("email");
+        String phoneNumber = rs.getString("phone_number");
+        String employeeId = rs.getString("employee_id");
+        String instructorDept = rs.getString("instructor_dept");
+        String title = rs.getString("title");
+        double salary = rs.getDouble("salary");
+        int yearsOfExperience = rs.getInt("years_of_experience");
+        
+        return new Instructor(instructorId, firstName, lastName, email, 
+                              phoneNumber, employeeId, instructorDept, 
+                              title, salary, yearsOfExperience);
+    }
 }
@@ -0,0 +1,434 @@
+package com.university.dao;
+
+import com.university.cache.StudentCache;
+import com.university.database.DatabaseConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk loads the nightly SIS exports (students, courses, enrollments) from CSV.
+ *
+ * The file is read sequentially in chunks; each chunk is parsed and validated
+ * on a worker pool while the next one is read. Chunks are then consumed in
+ * file order, so duplicate detection and reject reporting are deterministic.
+ * Only a bounded number of chunks is in flight, keeping memory flat.
+ *
+ * On PostgreSQL valid rows are streamed with COPY into a temporary staging
+ * table, rows that clash with existing data are removed and reported, and the
+ * rest is upserted into the live table in one statement; the whole load is a
+ * single transaction. Other databases (H2 in tests) get batched MERGEs that
+ * insert or update by key, committed per batch, with failing rows reported
+ * individually.
+ */
+public class CsvImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 5000;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private DatabaseConnection dbConnection;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    public CsvImporter() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets how many records are parsed per task and handed to the loader at a time.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the MERGE batch size used when COPY is not available.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets how many threads parse and validate records.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Imports students, inserting new ones and updating existing ones by id.
+     * Expects a header row; id, student_id, first_name, last_name and email are required.
+     */
+    public ImportResult importStudents(Reader source) {
+        try {
+            return run(source, ImportTarget.students());
+        } finally {
+            StudentCache.getInstance().invalidateAll();
+        }
+    }
+
+    /**
+     * Imports courses, inserting new ones and updating existing ones by course_id.
+     * Expects a header row; course_id, course_name and credits are required.
+     */
+    public ImportResult importCourses(Reader source) {
+        try {
+            return run(source, ImportTarget.courses());
+        } finally {
+            CourseDAO.getCatalog().invalidate();
+            new EnrollmentDAO().reconcileSeats();
+        }
+    }
+
+    /**
+     * Imports enrollments, inserting new ones and updating grade and status of
+     * existing ones. Expects a header row; student_id and course_id are required.
+     * The export is authoritative, so course capacity is not enforced; seat
+     * counts are recounted and the enrollment index reloaded afterwards.
+     */
+    public ImportResult importEnrollments(Reader source) {
+        try {
+            return run(source, ImportTarget.enrollments());
+        } finally {
+            EnrollmentDAO enrollmentDAO = new EnrollmentDAO();
+            enrollmentDAO.reconcileSeats();
+            enrollmentDAO.reloadEnrollmentIndex();
+        }
+    }
+
+    private ImportResult run(Reader source, ImportTarget target) {
+        ImportResult result = new ImportResult(target.getEntity());
+        long started = System.nanoTime();
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "csv-import-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (CsvReader reader = new CsvReader(source);
+             Connection conn = dbConnection.getConnection()) {
+
+            String[] header = reader.readRecord();
+            if (header == null) {
+                result.setError("Input is empty");
+                return result;
+            }
+            Map<String, Integer> positions = target.mapHeader(header);
+
+            try (RowSink sink = openSink(conn, target, result)) {
+                Deque<Future<List<ParsedRow>>> inFlight = new ArrayDeque<>();
+                List<Map<String, Long>> seenKeys = new ArrayList<>();
+                for (int i = 0; i < target.getUniqueKeyNames().length; i++) {
+                    seenKeys.add(new HashMap<>());
+                }
+
+                List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+                String[] fields;
+                while ((fields = reader.readRecord()) != null) {
+                    chunk.add(new ParsedRow(reader.getRecordStartLine(), fields));
+                    if (chunk.size() == chunkSize) {
+                        inFlight.add(parsers.submit(parseTask(chunk, positions, target)));
+                        chunk = new ArrayList<>(chunkSize);
+                        // Bound the read-ahead so a huge file never sits in memory
+                        while (inFlight.size() > parallelism * 2) {
+                            consume(inFlight.poll().get(), target, seenKeys, sink, result);
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    inFlight.add(parsers.submit(parseTask(chunk, positions, target)));
+                }
+                while (!inFlight.isEmpty()) {
+                    consume(inFlight.poll().get(), target, seenKeys, sink, result);
+                }
+
+                sink.finish();
+            }
+
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error reading " + target.getEntity() + " import: " + e.getMessage());
+            result.setError(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Error loading " + target.getEntity() + " import: " + e.getMessage());
+            result.setError(e.getMessage());
+        } catch (ExecutionException e) {
+            System.err.println("Error parsing " + target.getEntity() + " import: " + e.getCause());
+            result.setError(String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setError("Import interrupted");
+        } finally {
+            parsers.shutdownNow();
+            result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        }
+
+        return result;
+    }
+
+    private static Callable<List<ParsedRow>> parseTask(List<ParsedRow> chunk, Map<String, Integer> positions,
+                                                       ImportTarget target) {
+        return () -> {
+            for (ParsedRow row : chunk) {
+                try {
+                    row.values = target.parse(new ImportTarget.SourceRow(positions, row.fields));
+                } catch (IllegalArgumentException e) {
+                    row.error = e.getMessage();
+                }
+                row.fields = null;
+            }
+            return chunk;
+        };
+    }
+
+    /**
+     * Applies duplicate detection in file order and passes the surviving rows on.
+     */
+    private static void consume(List<ParsedRow> chunk, ImportTarget target, List<Map<String, Long>> seenKeys,
+                                RowSink sink, ImportResult result) throws SQLException {
+        String[] keyNames = target.getUniqueKeyNames();
+        List<ParsedRow> valid = new ArrayList<>(chunk.size());
+
+        rows:
+        for (ParsedRow row : chunk) {
+            result.recordRead();
+            if (row.error != null) {
+                result.recordReject(row.lineNumber, row.error);
+                continue;
+            }
+            String[] keys = target.uniqueKeys(row.values);
+            for (int i = 0; i < keys.length; i++) {
+                Long firstLine = seenKeys.get(i).get(keys[i]);
+                if (firstLine != null) {
+                    result.recordReject(row.lineNumber, "Duplicate " + keyNames[i] + " '" + keys[i] +
+                            "' (first seen on line " + firstLine + ")");
+                    continue rows;
+                }
+            }
+            for (int i = 0; i < keys.length; i++) {
+                seenKeys.get(i).put(keys[i], row.lineNumber);
+            }
+            valid.add(row);
+        }
+
+        if (!valid.isEmpty()) {
+            sink.write(valid);
+        }
+    }
+
+    private RowSink openSink(Connection conn, ImportTarget target, ImportResult result) throws SQLException {
+        if ("PostgreSQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName())
+                && conn.isWrapperFor(PGConnection.class)) {
+            return new CopySink(conn, target, result);
+        }
+        return new InsertSink(conn, target, result, batchSize);
+    }
+
+    /**
+     * Destination for validated rows.
+     */
+    private interface RowSink extends AutoCloseable {
+        void write(List<ParsedRow> rows) throws SQLException;
+
+        /**
+         * Makes everything written so far permanent.
+         */
+        void finish() throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    /**
+     * Streams rows into a staging table with COPY, then merges in one transaction.
+     */
+    private static class CopySink implements RowSink {
+        private static final String STAGING_PREFIX = "import_";
+
+        private final Connection conn;
+        private final ImportTarget target;
+        private final ImportResult result;
+        private final String stagingTable;
+        private final boolean autoCommit;
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean committed;
+
+        CopySink(Connection conn, ImportTarget target, ImportResult result) throws SQLException {
+            this.conn = conn;
+            this.target = target;
+            this.result = result;
+            this.stagingTable = STAGING_PREFIX + target.getTable();
+            this.autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            // Plain statements: the staging table is dropped at commit, so these must not be cached
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(target.createStagingSql(stagingTable));
+            }
+            this.copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(target.copySql(stagingTable));
+        }
+
+        @Override
+        public void write(List<ParsedRow> rows) throws SQLException {
+            buffer.setLength(0);
+            for (ParsedRow row : rows) {
+                buffer.append(row.lineNumber);
+                for (Object value : row.values) {
+                    buffer.append(',');
+                    appendCsv(buffer, value);
+                }
+                buffer.append('\n');
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void finish() throws SQLException {
+            copyIn.endCopy();
+            long merged;
+
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery(target.rejectConflictsSql(stagingTable))) {
+                    while (rs.next()) {
+                        result.recordReject(rs.getLong(1), rs.getString(2));
+                    }
+                }
+                stmt.execute("ANALYZE " + stagingTable);
+                merged = stmt.executeUpdate(target.mergeSql(stagingTable));
+            }
+            conn.commit();
+            committed = true;
+            result.addLoaded(merged);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                if (!committed) {
+                    conn.rollback();
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        /**
+         * Quotes every non-null value so an empty string stays distinct from NULL.
+         */
+        private static void appendCsv(StringBuilder out, Object value) {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            out.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        }
+    }
+
+    /**
+     * Fallback for databases without COPY: batched MERGEs through BatchWriter.
+     */
+    private static class InsertSink implements RowSink {
+        private final Connection conn;
+        private final ImportTarget target;
+        private final ImportResult result;
+        private final int batchSize;
+        private final String upsertSql;
+
+        InsertSink(Connection conn, ImportTarget target, ImportResult result, int batchSize) {
+            this.conn = conn;
+            this.target = target;
+            this.result = result;
+            this.batchSize = batchSize;
+            this.upsertSql = target.upsertSql();
+        }
+
+        @Override
+        public void write(List<ParsedRow> rows) {
+            int[] sqlTypes = target.getSqlTypes();
+            BatchResult batch = BatchWriter.execute(conn, upsertSql, rows, batchSize,
+                    (PreparedStatement stmt, ParsedRow row) -> {
+                        for (int i = 0; i < row.values.length; i++) {
+                            if (row.values[i] == null) {
+                                stmt.setNull(i + 1, sqlTypes[i]);
+                            } else {
+                                stmt.setObject(i + 1, row.values[i]);
+                            }
+                        }
+                    },
+                    row -> "line " + row.lineNumber);
+
+            result.addLoaded(batch.getSuccessCount());
+            for (BatchResult.RowFailure failure : batch.getFailures()) {
+                result.recordReject(rows.get(failure.getIndex()).lineNumber, failure.getMessage());
+            }
+        }
+
+        @Override
+        public void finish() {
+            // Each batch is committed as it is written
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * One record on its way through the pipeline: raw fields until parsed,
+     * then either column values or the validation error.
+     */
+    private static class ParsedRow {
+        private final long lineNumber;
+        private String[] fields;
+        private Object[] values;
+        private String error;
+
+        ParsedRow(long lineNumber, String[] fields) {
+            this.lineNumber = lineNumber;
+            this.fields = fields;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.university.dao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, double-quoted fields, doubled
+ * quotes as escapes, and line breaks allowed inside quoted fields.
+ */
+class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordStartLine;
+
+    CsvReader(Reader source) {
+        this.reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source, 1 << 16);
+    }
+
+    /**
+     * Reads the next record.
+     * @return Field values, or null at end of input
+     * @throws IOException if reading fails or a quoted field is never closed
+     */
+    String[] readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordStartLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Quoted field continues on the next physical line
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordStartLine);
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * @return Line on which the most recently read record started
+     */
+    long getRecordStartLine() {
+        return recordStartLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
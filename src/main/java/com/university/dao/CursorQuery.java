@@ -0,0 +1,72 @@
+package com.university.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Streams a query's rows to a callback through a server-side cursor.
+ *
+ * PostgreSQL only fetches incrementally when auto-commit is off and a fetch
+ * size is set; otherwise the driver buffers the whole result in memory. The
+ * query therefore runs in its own read-only transaction, and memory use stays
+ * at one fetch batch however large the table is.
+ */
+class CursorQuery {
+    
+    /**
+     * Binds the query's parameters.
+     */
+    interface Parameters {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+    
+    /**
+     * Maps the current row to an object.
+     */
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+    
+    static final Parameters NO_PARAMETERS = stmt -> { };
+    
+    private CursorQuery() {
+    }
+    
+    /**
+     * Runs the query and passes each mapped row to the action.
+     * @return Number of rows processed
+     */
+    static <T> int forEachRow(Connection conn, String sql, int fetchSize, Parameters parameters,
+                              RowMapper<T> mapper, Consumer<? super T> action) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        conn.setReadOnly(true);
+        int count = 0;
+        boolean committed = false;
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(fetchSize);
+            parameters.bind(stmt);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                    count++;
+                }
+            }
+            conn.commit();
+            committed = true;
+        } finally {
+            if (!committed) {
+                conn.rollback();
+            }
+            conn.setReadOnly(false);
+            conn.setAutoCommit(autoCommit);
+        }
+        
+        return count;
+    }
+}
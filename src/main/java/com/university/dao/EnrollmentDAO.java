@@ -1,62 +1,396 @@
 package com.university.dao;
 
+import com.university.cache.EnrollmentIndex;
+import com.university.cache.SeatCounter;
 import com.university.database.DatabaseConnection;
+import com.university.util.Env;
 import com.university.model.Student;
 import com.university.model.Course;
+import com.university.model.Instructor;
 
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class EnrollmentDAO {
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    
+    /**
+     * Limits an enrollments query to the partition of the course's term, so
+     * that only one partition is scanned. Bind the course id once more.
+     */
+    private static final String COURSE_TERM = "term_id = (SELECT term_id FROM courses WHERE course_id = ?)";
+    /** Limits an enrollments query to the DAO's term; bind getTermId(), null for the current term. */
+    private static final String SELECTED_TERM = "e.term_id = COALESCE(?, current_term_id())";
+    
+    /**
+     * Activation and seat claim in one statement. Enrollments take the term
+     * of their course. Locking the course row first makes concurrent claims
+     * queue and see the latest count; the seat is taken only if the upsert
+     * changed a row, so the statement affects no rows if the course is full
+     * or the student is already enrolled.
+     */
+    private static final String ENROLL_SQL =
+            "WITH seat AS (SELECT term_id, course_id FROM courses " +
+            "WHERE course_id = ? AND (capacity IS NULL OR enrolled_count < capacity) FOR UPDATE), " +
+            "activated AS (INSERT INTO enrollments (term_id, student_id, course_id, status) " +
+            "SELECT term_id, ?, course_id, 'ACTIVE' FROM seat " +
+            "ON CONFLICT (term_id, student_id, course_id) DO UPDATE SET status = 'ACTIVE' " +
+            "WHERE enrollments.status IS DISTINCT FROM 'ACTIVE' RETURNING course_id) " +
+            "UPDATE courses SET enrolled_count = enrolled_count + 1 " +
+            "WHERE course_id IN (SELECT course_id FROM activated)";
+    private static final String IS_ENROLLED_SQL =
+            "SELECT COUNT(*) FROM enrollments " +
+            "WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE' AND " + COURSE_TERM;
+    private static final String DROP_SQL =
+            "UPDATE enrollments SET status = 'DROPPED' " +
+            "WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE' AND " + COURSE_TERM;
+    private static final String RELEASE_SEAT_SQL =
+            "UPDATE courses SET enrolled_count = enrolled_count - 1 WHERE course_id = ? AND enrolled_count > 0";
+    private static final String ADD_GRADE_SQL =
+            "UPDATE enrollments SET grade = ? " +
+            "WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE' AND " + COURSE_TERM;
+    
+    /** Statistics columns for mapStats, for queries joining courses c to course_stats cs. */
+    private static final String STATS_COLUMNS =
+            "c.enrolled_count, COALESCE(cs.graded_count, 0) as graded_count, " +
+            "COALESCE(cs.grade_sum, 0) as grade_sum";
+    
+    private static final String ALL_ENROLLMENTS_SQL =
+            "SELECT e.*, s.first_name, s.last_name, s.student_id as student_number, " +
+            "c.course_name, c.credits FROM enrollments e " +
+            "JOIN students s ON e.student_id = s.id " +
+            "JOIN courses c ON e.course_id = c.course_id " +
+            "WHERE e.status = 'ACTIVE' AND " + SELECTED_TERM + " ORDER BY s.last_name, c.course_name";
+    
     private DatabaseConnection dbConnection;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean writeBehindEnabled;
+    private Integer termId;
     
     public EnrollmentDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.writeBehindEnabled = Env.getBoolean("ENROLLMENT_WRITE_BEHIND", false);
+    }
+    
+    /**
+     * Outcome of an enroll attempt against the database.
+     */
+    enum EnrollOutcome {
+        ENROLLED,
+        ALREADY_ENROLLED,
+        COURSE_FULL
+    }
+    
+    /**
+     * The shared seat counter, reconciled with the enrollments table and
+     * loaded the first time any EnrollmentDAO needs it.
+     */
+    private static class SeatsHolder {
+        private static final SeatCounter SEATS = initSeats();
+        
+        private static SeatCounter initSeats() {
+            SeatCounter seats = SeatCounter.getInstance();
+            try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+                reconcileSeats(conn, seats);
+            } catch (SQLException e) {
+                // Untracked courses fall through to the database, so this only costs speed
+                System.err.println("Error loading seat counts: " + e.getMessage());
+            }
+            return seats;
+        }
+    }
+    
+    private static SeatCounter seats() {
+        return SeatsHolder.SEATS;
+    }
+    
+    /**
+     * The shared enrollment membership index, loaded from the database the
+     * first time any EnrollmentDAO needs it.
+     */
+    private static class IndexHolder {
+        private static final EnrollmentIndex INDEX = initIndex();
+        
+        private static EnrollmentIndex initIndex() {
+            EnrollmentIndex index = EnrollmentIndex.getInstance();
+            try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+                loadIndex(conn, index, DEFAULT_FETCH_SIZE);
+            } catch (SQLException e) {
+                // An empty index sends every check to the database, so this only costs speed
+                System.err.println("Error loading enrollment index: " + e.getMessage());
+            }
+            return index;
+        }
+    }
+    
+    private static EnrollmentIndex index() {
+        return IndexHolder.INDEX;
+    }
+    
+    /**
+     * Loads the seat counts and the enrollment index now, at startup, instead
+     * of on the first call that needs them.
+     */
+    public static void preload() {
+        seats();
+        index();
+    }
+    
+    /**
+     * The group-commit buffer shared by all EnrollmentDAO instances in
+     * write-behind mode, started on first use.
+     */
+    private static class WriteBufferHolder {
+        private static final EnrollmentWriteBuffer BUFFER = new EnrollmentWriteBuffer(
+                DatabaseConnection.getInstance(),
+                Env.getInt("ENROLLMENT_QUEUE_CAPACITY", 10_000),
+                Env.getInt("ENROLLMENT_GROUP_COMMIT_SIZE", 256),
+                Env.getLong("ENROLLMENT_GROUP_COMMIT_MS", 10),
+                Env.getLong("ENROLLMENT_ENQUEUE_TIMEOUT_MS", 1000));
+    }
+    
+    private static volatile boolean writeBufferUsed;
+    
+    private static EnrollmentWriteBuffer writeBuffer() {
+        writeBufferUsed = true;
+        return WriteBufferHolder.BUFFER;
+    }
+    
+    /**
+     * Stops the write-behind buffer, if it was ever started, after committing
+     * everything already queued. Call before shutting the connection pool down.
+     * @return true if the queue drained within the timeout
+     */
+    public static boolean shutdownWriteBehind(long timeoutMillis) {
+        if (!writeBufferUsed) {
+            return true;
+        }
+        return WriteBufferHolder.BUFFER.shutdown(timeoutMillis);
+    }
+    
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+    
+    /**
+     * Switches enrollStudent and dropStudent to the group-commit buffer. Each
+     * call still waits until its command is committed, but concurrent calls
+     * share one transaction and one log flush. The async variants return as
+     * soon as the command is queued.
+     */
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+    
+    /**
+     * @return Term read by the listing methods, or null for the current term
+     */
+    public Integer getTermId() {
+        return termId;
+    }
+    
+    /**
+     * Selects the term that getAllEnrollments, getEnrollmentsPage,
+     * forEachEnrollment, getStudentCourses and getStudentSchedule read.
+     * Lookups of one student in one course always use that course's term.
+     * @param termId Term ID, or null (the default) for the current term
+     */
+    public void setTermId(Integer termId) {
+        this.termId = termId;
+    }
+    
+    public int getFetchSize() {
+        return fetchSize;
     }
     
     /**
-     * Enrolls a student in a course.
+     * Sets how many rows the streaming read methods pull from the cursor at a time.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Sets how many rows the bulk write methods send per batch and commit.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+    
+    /**
+     * Enrolls a student in a course if it has a free seat. Re-enrolling an
+     * active enrollment succeeds without taking another seat.
      * @param studentId Student ID
      * @param courseId Course ID
-     * @return true if successful, false otherwise
+     * @return true if the student is enrolled, false if the course is full or on error
      */
     public boolean enrollStudent(String studentId, String courseId) {
-        String sql = "INSERT INTO enrollments (student_id, course_id, status) VALUES (?, ?, 'ACTIVE') " +
-                    "ON CONFLICT (student_id, course_id) DO UPDATE SET status = 'ACTIVE'";
+        if (writeBehindEnabled) {
+            return await(enrollStudentAsync(studentId, courseId), "enrolling student");
+        }
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, studentId);
-            stmt.setString(2, courseId);
+        SeatCounter.Reservation reservation = seats().tryReserve(courseId);
+        if (reservation == SeatCounter.Reservation.FULL) {
+            // Re-enrolling an active enrollment needs no seat
+            return isEnrolled(studentId, courseId);
+        }
+        
+        try (Connection conn = dbConnection.getConnection()) {
+            EnrollOutcome outcome;
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                outcome = enrollInTransaction(conn, studentId, courseId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
             
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+            Collection<String> reloadCourses = new ArrayList<>(1);
+            boolean enrolled = settleEnroll(studentId, courseId, reservation, outcome, reloadCourses);
+            refreshSeats(conn, reloadCourses);
+            return enrolled;
             
         } catch (SQLException e) {
+            releaseReservation(courseId, reservation);
             System.err.println("Error enrolling student: " + e.getMessage());
             return false;
         }
     }
     
     /**
-     * Drops a student from a course.
+     * Enrolls a student through the group-commit buffer in write-behind mode,
+     * or directly otherwise.
+     * @return Future completing with the enrollStudent result once the
+     *         enrollment is committed; it fails if the buffer rejects the
+     *         command or the commit fails
+     */
+    public CompletableFuture<Boolean> enrollStudentAsync(String studentId, String courseId) {
+        if (!writeBehindEnabled) {
+            return CompletableFuture.completedFuture(enrollStudent(studentId, courseId));
+        }
+        
+        SeatCounter.Reservation reservation = seats().tryReserve(courseId);
+        if (reservation == SeatCounter.Reservation.FULL) {
+            return CompletableFuture.completedFuture(isEnrolled(studentId, courseId));
+        }
+        // The buffer owns the reservation from here and releases it if the enrollment fails
+        return writeBuffer().enroll(studentId, courseId, reservation);
+    }
+    
+    /**
+     * Updates the seat counter and enrollment index after an enroll attempt
+     * was committed.
+     * @param reloadCourses Collects courses whose counts must be reloaded from the database
+     * @return Whether the student is enrolled
+     */
+    static boolean settleEnroll(String studentId, String courseId, SeatCounter.Reservation reservation,
+                                EnrollOutcome outcome, Collection<String> reloadCourses) {
+        if (outcome != EnrollOutcome.ENROLLED) {
+            releaseReservation(courseId, reservation);
+        }
+        if (reservation == SeatCounter.Reservation.UNCHECKED || outcome == EnrollOutcome.COURSE_FULL) {
+            // Memory and database disagreed, or memory had no answer; take the database's figures
+            reloadCourses.add(courseId);
+        }
+        if (outcome == EnrollOutcome.COURSE_FULL) {
+            return false;
+        }
+        index().add(studentId, courseId);
+        return true;
+    }
+    
+    static boolean settleDrop(String studentId, String courseId, boolean dropped) {
+        if (dropped) {
+            seats().release(courseId);
+        }
+        // Not active either way once the drop has committed
+        index().remove(studentId, courseId);
+        return dropped;
+    }
+    
+    static void releaseReservation(String courseId, SeatCounter.Reservation reservation) {
+        if (reservation == SeatCounter.Reservation.RESERVED) {
+            seats().release(courseId);
+        }
+    }
+    
+    private static boolean await(CompletableFuture<Boolean> result, String action) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            System.err.println("Error " + action + ": " + e.getCause().getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Activates the enrollment and claims a seat on the caller's connection
+     * and transaction. Nothing is changed unless the result is ENROLLED; the
+     * caller commits, and rolls back if this throws.
+     */
+    static EnrollOutcome enrollInTransaction(Connection conn, String studentId, String courseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ENROLL_SQL)) {
+            stmt.setString(1, courseId);
+            stmt.setString(2, studentId);
+            if (stmt.executeUpdate() > 0) {
+                return EnrollOutcome.ENROLLED;
+            }
+        }
+        // Full or already active; only the latter counts as enrolled
+        return isEnrolled(conn, studentId, courseId) ? EnrollOutcome.ALREADY_ENROLLED : EnrollOutcome.COURSE_FULL;
+    }
+    
+    /**
+     * Drops a student from a course, freeing the seat.
      * @param studentId Student ID
      * @param courseId Course ID
-     * @return true if successful, false otherwise
+     * @return true if an active enrollment was dropped, false otherwise
      */
     public boolean dropStudent(String studentId, String courseId) {
-        String sql = "UPDATE enrollments SET status = 'DROPPED' WHERE student_id = ? AND course_id = ?";
+        if (writeBehindEnabled) {
+            return await(dropStudentAsync(studentId, courseId), "dropping student");
+        }
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, studentId);
-            stmt.setString(2, courseId);
+        try (Connection conn = dbConnection.getConnection()) {
+            boolean dropped;
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                dropped = dropInTransaction(conn, studentId, courseId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
             
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+            return settleDrop(studentId, courseId, dropped);
             
         } catch (SQLException e) {
             System.err.println("Error dropping student: " + e.getMessage());
@@ -64,6 +398,158 @@ public class EnrollmentDAO {
         }
     }
     
+    /**
+     * Drops a student through the group-commit buffer in write-behind mode,
+     * or directly otherwise.
+     * @return Future completing with the dropStudent result once the drop is committed
+     */
+    public CompletableFuture<Boolean> dropStudentAsync(String studentId, String courseId) {
+        if (!writeBehindEnabled) {
+            return CompletableFuture.completedFuture(dropStudent(studentId, courseId));
+        }
+        return writeBuffer().drop(studentId, courseId);
+    }
+    
+    /**
+     * Drops an active enrollment and frees its seat on the caller's
+     * connection and transaction.
+     * @return true if an active enrollment was dropped
+     */
+    static boolean dropInTransaction(Connection conn, String studentId, String courseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DROP_SQL)) {
+            stmt.setString(1, studentId);
+            stmt.setString(2, courseId);
+            stmt.setString(3, courseId);
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        releaseSeat(conn, courseId);
+        return true;
+    }
+    
+    private static void releaseSeat(Connection conn, String courseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(RELEASE_SEAT_SQL)) {
+            stmt.setString(1, courseId);
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Recounts every course's active enrollments into courses.enrolled_count
+     * and reloads the in-memory seat counts. Runs automatically the first time
+     * seats are needed; call it again after bulk changes made outside this
+     * DAO, such as imports. Enrollments committed while it runs may be missed,
+     * so run it when enrollment traffic is quiet.
+     * @return Number of courses whose count was corrected, or -1 on error
+     */
+    public int reconcileSeats() {
+        try (Connection conn = dbConnection.getConnection()) {
+            return reconcileSeats(conn, seats());
+        } catch (SQLException e) {
+            System.err.println("Error reconciling seat counts: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    private static int reconcileSeats(Connection conn, SeatCounter seats) throws SQLException {
+        String fixSql = "UPDATE courses c SET enrolled_count = a.active " +
+                    "FROM (SELECT c2.course_id, COUNT(e.id) AS active FROM courses c2 " +
+                    "LEFT JOIN enrollments e ON e.course_id = c2.course_id AND e.status = 'ACTIVE' " +
+                    // Archived terms' enrollments are detached; leave their counts as they were
+                    "WHERE c2.term_id IN (SELECT term_id FROM terms WHERE NOT archived) " +
+                    "GROUP BY c2.course_id) a " +
+                    "WHERE c.course_id = a.course_id AND c.enrolled_count <> a.active";
+        String loadSql = "SELECT course_id, capacity, enrolled_count FROM courses";
+        
+        int corrected;
+        try (PreparedStatement stmt = conn.prepareStatement(fixSql)) {
+            corrected = stmt.executeUpdate();
+        }
+        
+        seats.clear();
+        try (PreparedStatement stmt = conn.prepareStatement(loadSql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                loadSeats(seats, rs);
+            }
+        }
+        return corrected;
+    }
+    
+    /**
+     * Reloads the seat counts of the given courses from the database.
+     */
+    private static void loadSeats(Connection conn, Collection<String> courseIds) throws SQLException {
+        String sql = "SELECT course_id, capacity, enrolled_count FROM courses WHERE course_id = ANY(?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", courseIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                Collection<String> missing = new LinkedHashSet<>(courseIds);
+                while (rs.next()) {
+                    missing.remove(rs.getString("course_id"));
+                    loadSeats(seats(), rs);
+                }
+                missing.forEach(seats()::remove);
+            }
+        }
+    }
+    
+    static void refreshSeats(Connection conn, Collection<String> courseIds) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        try {
+            loadSeats(conn, courseIds);
+        } catch (SQLException e) {
+            // The stale counts are corrected the next time the database disagrees
+            System.err.println("Error refreshing seat counts: " + e.getMessage());
+        }
+    }
+    
+    private static void loadSeats(SeatCounter seats, ResultSet rs) throws SQLException {
+        int capacity = rs.getInt("capacity");
+        Integer limit = rs.wasNull() ? null : capacity;
+        seats.load(rs.getString("course_id"), limit, rs.getInt("enrolled_count"));
+    }
+    
+    /**
+     * Reloads the in-memory enrollment index from the database. Runs
+     * automatically the first time the index is needed; call it again after
+     * bulk changes made outside this DAO, such as imports, to pick up
+     * drops made by other processes, or after a TermRolloverJob run that
+     * archived terms.
+     * @return Number of active enrollments loaded, or -1 on error
+     */
+    public int reloadEnrollmentIndex() {
+        try (Connection conn = dbConnection.getConnection()) {
+            return loadIndex(conn, index(), fetchSize);
+        } catch (SQLException e) {
+            System.err.println("Error loading enrollment index: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    private static int loadIndex(Connection conn, EnrollmentIndex index, int fetchSize) throws SQLException {
+        // The maintained seat counts give the size for the Bloom filter without counting enrollments
+        int expectedSize = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COALESCE(SUM(enrolled_count), 0) FROM courses WHERE term_id >= current_term_id()");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                expectedSize = (int) Math.min(Integer.MAX_VALUE, rs.getLong(1));
+            }
+        }
+        
+        // Current and upcoming terms only; older lookups fall back to the database
+        String sql = "SELECT student_id, course_id FROM enrollments " +
+                    "WHERE status = 'ACTIVE' AND term_id >= current_term_id()";
+        return index.load(sink -> CursorQuery.forEachRow(conn, sql, fetchSize, CursorQuery.NO_PARAMETERS,
+                rs -> new String[] { rs.getString("student_id"), rs.getString("course_id") },
+                row -> sink.accept(row[0], row[1])), expectedSize);
+    }
+    
     /**
      * Adds a grade for a student in a course.
      * @param studentId Student ID
@@ -72,14 +558,13 @@ public class EnrollmentDAO {
      * @return true if successful, false otherwise
      */
     public boolean addGrade(String studentId, String courseId, double grade) {
-        String sql = "UPDATE enrollments SET grade = ? WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE'";
-        
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(ADD_GRADE_SQL)) {
             
             stmt.setDouble(1, grade);
             stmt.setString(2, studentId);
             stmt.setString(3, courseId);
+            stmt.setString(4, courseId);
             
             int rowsAffected = stmt.executeUpdate();
             return rowsAffected > 0;
@@ -90,6 +575,88 @@ public class EnrollmentDAO {
         }
     }
     
+    /**
+     * Enrolls many students at once, batching the seat claim and upsert and
+     * committing every batchSize rows. Pairs whose course is full, or that
+     * are already enrolled, are reported as failures with "No rows affected".
+     * @param enrollments Student/course pairs to enroll
+     * @return Per-row results; failures are keyed by "studentId/courseId"
+     */
+    public BatchResult enrollStudents(List<EnrollmentKey> enrollments) {
+        BatchResult result = writeBatch(ENROLL_SQL, enrollments, (stmt, key) -> {
+            stmt.setString(1, key.getCourseId());
+            stmt.setString(2, key.getStudentId());
+        }, EnrollmentKey::toString, "enrolling students");
+        
+        Set<Integer> failed = new HashSet<>();
+        for (BatchResult.RowFailure failure : result.getFailures()) {
+            failed.add(failure.getIndex());
+        }
+        Collection<String> courseIds = new LinkedHashSet<>();
+        for (int i = 0; i < enrollments.size(); i++) {
+            EnrollmentKey key = enrollments.get(i);
+            courseIds.add(key.getCourseId());
+            if (!failed.contains(i)) {
+                index().add(key.getStudentId(), key.getCourseId());
+            }
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            refreshSeats(conn, courseIds);
+        } catch (SQLException e) {
+            System.err.println("Error refreshing seat counts: " + e.getMessage());
+        }
+        return result;
+    }
+    
+    /**
+     * Posts many grades at once, batching the update and committing every
+     * batchSize rows. Null grades and pairs without an active enrollment are
+     * reported as failures.
+     * @param grades Grade per student/course pair
+     * @return Per-row results, indexed in the map's iteration order
+     */
+    public BatchResult addGrades(Map<EnrollmentKey, Double> grades) {
+        BatchResult result = new BatchResult();
+        List<Map.Entry<EnrollmentKey, Double>> rows = new ArrayList<>(grades.size());
+        int[] positions = new int[grades.size()];
+        int index = 0;
+        for (Map.Entry<EnrollmentKey, Double> entry : grades.entrySet()) {
+            if (entry.getValue() == null) {
+                result.recordFailure(index, entry.getKey().toString(), "Grade is null");
+            } else {
+                positions[rows.size()] = index;
+                rows.add(entry);
+            }
+            index++;
+        }
+        if (rows.isEmpty()) {
+            return result;
+        }
+        
+        BatchResult written = writeBatch(ADD_GRADE_SQL, rows, (stmt, entry) -> {
+            stmt.setDouble(1, entry.getValue());
+            stmt.setString(2, entry.getKey().getStudentId());
+            stmt.setString(3, entry.getKey().getCourseId());
+            stmt.setString(4, entry.getKey().getCourseId());
+        }, entry -> entry.getKey().toString(), "adding grades");
+        result.merge(written, positions);
+        return result;
+    }
+    
+    private <T> BatchResult writeBatch(String sql, List<T> rows, BatchWriter.Binder<T> binder,
+                                       Function<T, String> keyOf, String action) {
+        try (Connection conn = dbConnection.getConnection()) {
+            return BatchWriter.execute(conn, sql, rows, batchSize, binder, keyOf);
+        } catch (SQLException e) {
+            System.err.println("Error " + action + ": " + e.getMessage());
+            BatchResult result = new BatchResult();
+            for (int i = 0; i < rows.size(); i++) {
+                result.recordFailure(i, keyOf.apply(rows.get(i)), e.getMessage());
+            }
+            return result;
+        }
+    }
+    
     /**
      * Gets the grade for a student in a specific course.
      * @param studentId Student ID
@@ -97,13 +664,15 @@ public class EnrollmentDAO {
      * @return Grade or -1 if not found
      */
     public double getGrade(String studentId, String courseId) {
-        String sql = "SELECT grade FROM enrollments WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE'";
+        String sql = "SELECT grade FROM enrollments " +
+                    "WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE' AND " + COURSE_TERM;
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, studentId);
             stmt.setString(2, courseId);
+            stmt.setString(3, courseId);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -118,18 +687,20 @@ public class EnrollmentDAO {
     }
     
     /**
-     * Gets all courses a student is enrolled in.
+     * Gets all courses a student is enrolled in during the selected term.
      * @param studentId Student ID
      * @return List of course IDs
      */
     public List<String> getStudentCourses(String studentId) {
-        String sql = "SELECT course_id FROM enrollments WHERE student_id = ? AND status = 'ACTIVE'";
+        String sql = "SELECT course_id FROM enrollments e WHERE e.student_id = ? AND e.status = 'ACTIVE' AND " +
+                    SELECTED_TERM;
         List<String> courseIds = new ArrayList<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, studentId);
+            setNullableInt(stmt, 2, termId);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -149,13 +720,14 @@ public class EnrollmentDAO {
      * @return List of student IDs
      */
     public List<String> getCourseStudents(String courseId) {
-        String sql = "SELECT student_id FROM enrollments WHERE course_id = ? AND status = 'ACTIVE'";
+        String sql = "SELECT student_id FROM enrollments WHERE course_id = ? AND status = 'ACTIVE' AND " + COURSE_TERM;
         List<String> studentIds = new ArrayList<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, courseId);
+            stmt.setString(2, courseId);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -170,61 +742,138 @@ public class EnrollmentDAO {
     }
     
     /**
-     * Gets detailed enrollment information with student and course details.
+     * Gets detailed enrollment information with student and course details
+     * for the selected term.
      * @return List of enrollment records with JOIN data
      */
     public List<EnrollmentRecord> getAllEnrollments() {
+        List<EnrollmentRecord> enrollments = new ArrayList<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ALL_ENROLLMENTS_SQL)) {
+            
+            setNullableInt(stmt, 1, termId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                enrollments.add(mapResultSetToEnrollmentRecord(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error retrieving all enrollments: " + e.getMessage());
+        }
+        
+        return enrollments;
+    }
+    
+    /**
+     * Gets one page of the selected term's active enrollments ordered by
+     * student last name, course name and enrollment id.
+     * @param pageToken Token from the previous page, or null for the first page
+     * @param pageSize Maximum number of enrollments on the page
+     * @return Page of enrollment records and the token for the next one
+     */
+    public Page<EnrollmentRecord> getEnrollmentsPage(String pageToken, int pageSize) {
+        String[] after = pageToken != null ? Page.decodeToken(pageToken, 3) : null;
         String sql = "SELECT e.*, s.first_name, s.last_name, s.student_id as student_number, " +
                     "c.course_name, c.credits FROM enrollments e " +
                     "JOIN students s ON e.student_id = s.id " +
                     "JOIN courses c ON e.course_id = c.course_id " +
-                    "WHERE e.status = 'ACTIVE' ORDER BY s.last_name, c.course_name";
+                    "WHERE e.status = 'ACTIVE' AND " + SELECTED_TERM + " " +
+                    (after != null ? "AND (s.last_name, c.course_name, e.id) > (?, ?, ?) " : "") +
+                    "ORDER BY s.last_name, c.course_name, e.id LIMIT ?";
         List<EnrollmentRecord> enrollments = new ArrayList<>();
+        String[] lastKey = null;
         
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            setNullableInt(stmt, index++, termId);
+            if (after != null) {
+                stmt.setString(index++, after[0]);
+                stmt.setString(index++, after[1]);
+                stmt.setInt(index++, Integer.parseInt(after[2]));
+            }
+            // One extra row tells us whether another page exists
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                EnrollmentRecord record = new EnrollmentRecord();
-                record.setStudentId(rs.getString("student_id"));
-                record.setStudentName(rs.getString("first_name") + " " + rs.getString("last_name"));
-                record.setStudentNumber(rs.getString("student_number"));
-                record.setCourseId(rs.getString("course_id"));
-                record.setCourseName(rs.getString("course_name"));
-                record.setCredits(rs.getInt("credits"));
-                record.setGrade(rs.getDouble("grade"));
-                record.setEnrollmentDate(rs.getTimestamp("enrollment_date"));
-                record.setStatus(rs.getString("status"));
-                
-                enrollments.add(record);
+                if (enrollments.size() == pageSize) {
+                    return new Page<>(enrollments, Page.encodeToken(lastKey));
+                }
+                enrollments.add(mapResultSetToEnrollmentRecord(rs));
+                lastKey = new String[] { rs.getString("last_name"), rs.getString("course_name"),
+                                         String.valueOf(rs.getInt("id")) };
             }
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving all enrollments: " + e.getMessage());
+            System.err.println("Error retrieving enrollments page: " + e.getMessage());
+            return Page.empty();
         }
         
-        return enrollments;
+        return new Page<>(enrollments, null);
+    }
+    
+    /**
+     * Streams every active enrollment of the selected term, ordered like
+     * getAllEnrollments(), to the action without holding the result in memory.
+     * @param action Called once per enrollment
+     * @return Number of enrollments processed, or -1 if the query failed
+     */
+    public int forEachEnrollment(Consumer<? super EnrollmentRecord> action) {
+        try (Connection conn = dbConnection.getConnection()) {
+            return CursorQuery.forEachRow(conn, ALL_ENROLLMENTS_SQL, fetchSize, stmt -> setNullableInt(stmt, 1, termId),
+                                          this::mapResultSetToEnrollmentRecord, action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming enrollments: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Streams enrollments created or updated after the watermark, oldest change
+     * first. Includes dropped enrollments so consumers see the status change;
+     * deleted rows are reported by TombstoneDAO.
+     * @param watermark Watermark returned by the previous call, or null to read all enrollments
+     * @param action Called once per changed enrollment
+     * @return Watermark for the next call, or null if the query failed
+     */
+    public Instant changedSince(Instant watermark, Consumer<? super EnrollmentRecord> action) {
+        String sql = "SELECT e.*, s.first_name, s.last_name, s.student_id as student_number, " +
+                    "c.course_name, c.credits FROM enrollments e " +
+                    "JOIN students s ON e.student_id = s.id " +
+                    "JOIN courses c ON e.course_id = c.course_id " +
+                    "WHERE e.updated_at > ? AND e.updated_at <= ? ORDER BY e.updated_at, e.id";
+        
+        try (Connection conn = dbConnection.getConnection()) {
+            return ChangeFeed.forEachChange(conn, sql, watermark, fetchSize, (stmt, start, end) -> {
+                stmt.setTimestamp(1, start);
+                stmt.setTimestamp(2, end);
+            }, this::mapResultSetToEnrollmentRecord, action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming changed enrollments: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
-     * Checks if a student is enrolled in a course.
+     * Checks if a student is enrolled in a course. Known enrollments are
+     * answered from the in-memory index; anything else is checked against
+     * the database, and a positive answer is added to the index.
      * @param studentId Student ID
      * @param courseId Course ID
      * @return true if enrolled, false otherwise
      */
     public boolean isEnrolled(String studentId, String courseId) {
-        String sql = "SELECT COUNT(*) FROM enrollments WHERE student_id = ? AND course_id = ? AND status = 'ACTIVE'";
+        if (index().contains(studentId, courseId)) {
+            return true;
+        }
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, studentId);
-            stmt.setString(2, courseId);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
+        try (Connection conn = dbConnection.getConnection()) {
+            if (isEnrolled(conn, studentId, courseId)) {
+                index().add(studentId, courseId);
+                return true;
             }
             
         } catch (SQLException e) {
@@ -234,15 +883,26 @@ public class EnrollmentDAO {
         return false;
     }
     
+    private static boolean isEnrolled(Connection conn, String studentId, String courseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(IS_ENROLLED_SQL)) {
+            stmt.setString(1, studentId);
+            stmt.setString(2, courseId);
+            stmt.setString(3, courseId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+    
     /**
-     * Gets enrollment statistics for a course.
+     * Gets enrollment statistics for a course from its maintained seat count
+     * and the course_stats grade summary, which the database keeps current on
+     * every grade change.
      * @param courseId Course ID
      * @return EnrollmentStats object with statistics
      */
     public EnrollmentStats getCourseStats(String courseId) {
-        String sql = "SELECT COUNT(*) as total_enrolled, AVG(grade) as average_grade, " +
-                    "COUNT(CASE WHEN grade IS NOT NULL THEN 1 END) as graded_count " +
-                    "FROM enrollments WHERE course_id = ? AND status = 'ACTIVE'";
+        String sql = "SELECT " + STATS_COLUMNS + " FROM courses c " +
+                    "LEFT JOIN course_stats cs ON cs.course_id = c.course_id WHERE c.course_id = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -251,11 +911,7 @@ public class EnrollmentDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                EnrollmentStats stats = new EnrollmentStats();
-                stats.setTotalEnrolled(rs.getInt("total_enrolled"));
-                stats.setAverageGrade(rs.getDouble("average_grade"));
-                stats.setGradedCount(rs.getInt("graded_count"));
-                return stats;
+                return mapStats(rs);
             }
             
         } catch (SQLException e) {
@@ -265,6 +921,173 @@ public class EnrollmentDAO {
         return new EnrollmentStats();
     }
     
+    /**
+     * Gets enrollment statistics for every course in one read of the courses
+     * table and the course_stats summary.
+     * @return Statistics keyed by course ID, in course name order; courses
+     *         without enrollments have zero counts
+     */
+    public Map<String, EnrollmentStats> getAllCourseStats() {
+        String sql = "SELECT c.course_id, " + STATS_COLUMNS + " " +
+                    "FROM courses c LEFT JOIN course_stats cs ON cs.course_id = c.course_id " +
+                    "ORDER BY c.course_name, c.course_id";
+        Map<String, EnrollmentStats> stats = new LinkedHashMap<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                stats.put(rs.getString("course_id"), mapStats(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error retrieving course stats: " + e.getMessage());
+        }
+        
+        return stats;
+    }
+    
+    /**
+     * Recomputes course_stats from the enrollments table. Only needed to
+     * repair the summary after changes made with its trigger disabled;
+     * enrollment counts are repaired by reconcileSeats().
+     * @return Number of courses rewritten, or -1 on error
+     */
+    public int rebuildCourseStats() {
+        String sql = "INSERT INTO course_stats (course_id, graded_count, grade_sum) " +
+                    "SELECT c.course_id, COUNT(e.grade), COALESCE(SUM(e.grade), 0) " +
+                    "FROM courses c LEFT JOIN enrollments e ON e.course_id = c.course_id AND e.status = 'ACTIVE' " +
+                    // Archived terms' enrollments are detached; keep their final figures
+                    "WHERE c.term_id IN (SELECT term_id FROM terms WHERE NOT archived) " +
+                    "GROUP BY c.course_id " +
+                    "ON CONFLICT (course_id) DO UPDATE SET " +
+                    "graded_count = EXCLUDED.graded_count, grade_sum = EXCLUDED.grade_sum";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            return stmt.executeUpdate();
+            
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding course stats: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    private EnrollmentStats mapStats(ResultSet rs) throws SQLException {
+        EnrollmentStats stats = new EnrollmentStats();
+        int gradedCount = rs.getInt("graded_count");
+        double gradeSum = rs.getDouble("grade_sum");
+        stats.setTotalEnrolled(rs.getInt("enrolled_count"));
+        stats.setGradedCount(gradedCount);
+        stats.setGradeSum(gradeSum);
+        stats.setAverageGrade(gradedCount > 0 ? gradeSum / gradedCount : 0.0);
+        return stats;
+    }
+    
+    /**
+     * Gets the full roster of a course in one query: each active student with
+     * their grade and enrollment date.
+     * @param courseId Course ID
+     * @return Roster entries ordered by student name
+     */
+    public List<RosterEntry> getRosterDetails(String courseId) {
+        String sql = "SELECT s.*, e.grade, e.enrollment_date FROM enrollments e " +
+                    "JOIN students s ON e.student_id = s.id " +
+                    "WHERE e.course_id = ? AND e.status = 'ACTIVE' AND e." + COURSE_TERM + " " +
+                    "ORDER BY s.last_name, s.first_name";
+        List<RosterEntry> roster = new ArrayList<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, courseId);
+            stmt.setString(2, courseId);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                RosterEntry entry = new RosterEntry();
+                entry.setStudent(StudentDAO.mapResultSetToStudent(rs));
+                entry.setGrade(getNullableGrade(rs));
+                entry.setEnrollmentDate(rs.getTimestamp("enrollment_date"));
+                roster.add(entry);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error retrieving course roster: " + e.getMessage());
+        }
+        
+        return roster;
+    }
+    
+    /**
+     * Gets a student's schedule for the selected term in one query: each
+     * active course with its instructor, the student's grade and the
+     * enrollment date.
+     * @param studentId Student ID
+     * @return Schedule entries ordered by course name
+     */
+    public List<ScheduleEntry> getStudentSchedule(String studentId) {
+        String sql = "SELECT " + CourseDAO.COURSE_COLUMNS + ", e.grade, e.enrollment_date " +
+                    "FROM enrollments e " +
+                    "JOIN courses c ON e.course_id = c.course_id " +
+                    "LEFT JOIN instructors i ON c.instructor_id = i.id " +
+                    "WHERE e.student_id = ? AND e.status = 'ACTIVE' AND " + SELECTED_TERM + " " +
+                    "ORDER BY c.course_name";
+        List<ScheduleEntry> schedule = new ArrayList<>();
+        Map<String, Instructor> instructors = new HashMap<>();
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, studentId);
+            setNullableInt(stmt, 2, termId);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                ScheduleEntry entry = new ScheduleEntry();
+                entry.setCourse(CourseDAO.mapResultSetToCourse(rs, instructors));
+                entry.setGrade(getNullableGrade(rs));
+                entry.setEnrollmentDate(rs.getTimestamp("enrollment_date"));
+                schedule.add(entry);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error retrieving student schedule: " + e.getMessage());
+        }
+        
+        return schedule;
+    }
+    
+    private static void setNullableInt(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            stmt.setInt(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+    
+    private static Double getNullableGrade(ResultSet rs) throws SQLException {
+        double grade = rs.getDouble("grade");
+        return rs.wasNull() ? null : grade;
+    }
+    
+    private EnrollmentRecord mapResultSetToEnrollmentRecord(ResultSet rs) throws SQLException {
+        EnrollmentRecord record = new EnrollmentRecord();
+        record.setStudentId(rs.getString("student_id"));
+        record.setStudentName(rs.getString("first_name") + " " + rs.getString("last_name"));
+        record.setStudentNumber(rs.getString("student_number"));
+        record.setCourseId(rs.getString("course_id"));
+        record.setCourseName(rs.getString("course_name"));
+        record.setCredits(rs.getInt("credits"));
+        record.setGrade(rs.getDouble("grade"));
+        record.setGraded(!rs.wasNull());
+        record.setEnrollmentDate(rs.getTimestamp("enrollment_date"));
+        record.setStatus(rs.getString("status"));
+        return record;
+    }
+    
     /**
      * Inner class to represent enrollment records with JOIN data.
      */
@@ -276,6 +1099,7 @@ public class EnrollmentDAO {
         private String courseName;
         private int credits;
         private double grade;
+        private boolean graded;
         private Timestamp enrollmentDate;
         private String status;
         
@@ -301,6 +1125,10 @@ public class EnrollmentDAO {
         public double getGrade() { return grade; }
         public void setGrade(double grade) { this.grade = grade; }
         
+        /** @return false if no grade has been given yet (getGrade() is then 0) */
+        public boolean isGraded() { return graded; }
+        public void setGraded(boolean graded) { this.graded = graded; }
+        
         public Timestamp getEnrollmentDate() { return enrollmentDate; }
         public void setEnrollmentDate(Timestamp enrollmentDate) { this.enrollmentDate = enrollmentDate; }
         
@@ -314,6 +1142,93 @@ public class EnrollmentDAO {
         }
     }
     
+    /**
+     * Inner class to identify one enrollment by student and course.
+     */
+    public static class EnrollmentKey {
+        private final String studentId;
+        private final String courseId;
+        
+        public EnrollmentKey(String studentId, String courseId) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+        }
+        
+        public String getStudentId() { return studentId; }
+        
+        public String getCourseId() { return courseId; }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            EnrollmentKey other = (EnrollmentKey) obj;
+            return Objects.equals(studentId, other.studentId) && Objects.equals(courseId, other.courseId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(studentId, courseId);
+        }
+        
+        @Override
+        public String toString() {
+            return studentId + "/" + courseId;
+        }
+    }
+    
+    /**
+     * Inner class to represent a student on a course roster.
+     */
+    public static class RosterEntry {
+        private Student student;
+        private Double grade;
+        private Timestamp enrollmentDate;
+        
+        // Getters and setters
+        public Student getStudent() { return student; }
+        public void setStudent(Student student) { this.student = student; }
+        
+        /** @return Grade, or null if not graded yet */
+        public Double getGrade() { return grade; }
+        public void setGrade(Double grade) { this.grade = grade; }
+        
+        public Timestamp getEnrollmentDate() { return enrollmentDate; }
+        public void setEnrollmentDate(Timestamp enrollmentDate) { this.enrollmentDate = enrollmentDate; }
+        
+        @Override
+        public String toString() {
+            return String.format("%s | grade=%s, enrolled=%s", student,
+                    grade != null ? String.format("%.2f", grade) : "N/A", enrollmentDate);
+        }
+    }
+    
+    /**
+     * Inner class to represent a course on a student's schedule.
+     */
+    public static class ScheduleEntry {
+        private Course course;
+        private Double grade;
+        private Timestamp enrollmentDate;
+        
+        // Getters and setters
+        public Course getCourse() { return course; }
+        public void setCourse(Course course) { this.course = course; }
+        
+        /** @return Grade, or null if not graded yet */
+        public Double getGrade() { return grade; }
+        public void setGrade(Double grade) { this.grade = grade; }
+        
+        public Timestamp getEnrollmentDate() { return enrollmentDate; }
+        public void setEnrollmentDate(Timestamp enrollmentDate) { this.enrollmentDate = enrollmentDate; }
+        
+        @Override
+        public String toString() {
+            return String.format("%s | grade=%s, enrolled=%s", course,
+                    grade != null ? String.format("%.2f", grade) : "N/A", enrollmentDate);
+        }
+    }
+    
     /**
      * Inner class to represent enrollment statistics.
      */
@@ -321,6 +1236,7 @@ public class EnrollmentDAO {
         private int totalEnrolled;
         private double averageGrade;
         private int gradedCount;
+        private double gradeSum;
         
         // Getters and setters
         public int getTotalEnrolled() { return totalEnrolled; }
@@ -332,6 +1248,9 @@ public class EnrollmentDAO {
         public int getGradedCount() { return gradedCount; }
         public void setGradedCount(int gradedCount) { this.gradedCount = gradedCount; }
         
+        public double getGradeSum() { return gradeSum; }
+        public void setGradeSum(double gradeSum) { this.gradeSum = gradeSum; }
+        
         @Override
         public String toString() {
             return String.format("Stats{enrolled=%d, avgGrade=%.2f, graded=%d}", 
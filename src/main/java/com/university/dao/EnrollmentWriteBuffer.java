@@ -0,0 +1,276 @@
+package com.university.dao;
+
+import com.university.cache.SeatCounter;
+import com.university.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue for enroll and drop commands with group commit.
+ *
+ * Callers enqueue a command and get a future. A single writer thread
+ * collects commands until it has maxGroupSize of them or maxDelayMillis have
+ * passed since the first, applies them in one transaction (each behind its
+ * own savepoint, so one bad command does not sink the group) and commits
+ * once. Futures complete only after that commit, so an acknowledged command
+ * is durable; the commit's fsync is shared by the whole group.
+ *
+ * The queue is bounded: when it is full, callers wait up to the enqueue
+ * timeout and are then rejected. shutdown() stops intake and drains what is
+ * already queued. If the writer thread stops any other way, intake stops
+ * too and everything still queued is failed.
+ */
+class EnrollmentWriteBuffer {
+    private final DatabaseConnection dbConnection;
+    private final BlockingQueue<Command> queue;
+    private final int maxGroupSize;
+    private final long maxDelayNanos;
+    private final long enqueueTimeoutMillis;
+    private final ReadWriteLock intakeLock = new ReentrantReadWriteLock();
+    private final Thread writer;
+    private volatile boolean closed;
+    private long groupCount;
+    private long commandCount;
+
+    EnrollmentWriteBuffer(DatabaseConnection dbConnection, int queueCapacity, int maxGroupSize,
+                          long maxDelayMillis, long enqueueTimeoutMillis) {
+        this.dbConnection = dbConnection;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.enqueueTimeoutMillis = Math.max(0, enqueueTimeoutMillis);
+        this.writer = new Thread(this::run, "enrollment-group-commit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    CompletableFuture<Boolean> enroll(String studentId, String courseId, SeatCounter.Reservation reservation) {
+        return submit(new Command(true, studentId, courseId, reservation));
+    }
+
+    CompletableFuture<Boolean> drop(String studentId, String courseId) {
+        return submit(new Command(false, studentId, courseId, null));
+    }
+
+    private CompletableFuture<Boolean> submit(Command command) {
+        boolean queued = false;
+        intakeLock.readLock().lock();
+        try {
+            if (!closed) {
+                queued = queue.offer(command, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (!queued) {
+                reject(command, new RejectedExecutionException(closed
+                        ? "Enrollment write buffer is shut down"
+                        : "Enrollment write buffer is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(command, new RejectedExecutionException("Interrupted while waiting for the enrollment write buffer"));
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+        return command.result;
+    }
+
+    /**
+     * Stops accepting commands and waits for queued ones to be committed.
+     * @return true if the queue drained within the timeout
+     */
+    boolean shutdown(long timeoutMillis) {
+        intakeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !writer.isAlive();
+    }
+
+    private void run() {
+        List<Command> group = new ArrayList<>(maxGroupSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    group.add(first);
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    while (group.size() < maxGroupSize) {
+                        if (queue.drainTo(group, maxGroupSize - group.size()) > 0) {
+                            continue;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        // Once shutting down there is no reason to wait for more
+                        Command next = remaining > 0 && !closed ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        group.add(next);
+                    }
+                    commitGroup(group);
+                } catch (InterruptedException e) {
+                    // Nothing interrupts the writer in normal operation; give up on what is queued
+                    Thread.currentThread().interrupt();
+                    abandon(group);
+                    break;
+                } catch (RuntimeException e) {
+                    System.err.println("Error in enrollment group commit: " + e.getMessage());
+                    reject(group, e);
+                } finally {
+                    group.clear();
+                }
+            }
+        } finally {
+            // Whatever stopped the writer, nothing will commit later commands
+            intakeLock.writeLock().lock();
+            try {
+                closed = true;
+            } finally {
+                intakeLock.writeLock().unlock();
+            }
+            List<Command> queued = new ArrayList<>();
+            queue.drainTo(queued);
+            abandon(queued);
+        }
+    }
+
+    /**
+     * Fails commands that will never be committed, so callers waiting on
+     * their futures do not hang.
+     */
+    private void abandon(List<Command> commands) {
+        reject(commands, new RejectedExecutionException("Enrollment write buffer stopped before the command was committed"));
+    }
+
+    private static void reject(List<Command> commands, Throwable error) {
+        for (Command command : commands) {
+            if (!command.result.isDone()) {
+                reject(command, error);
+            }
+        }
+    }
+
+    /**
+     * Fails a command and gives back its seat reservation. A command's
+     * reservation belongs to the buffer from submit() on, so this is the only
+     * place it is released on failure.
+     */
+    private static void reject(Command command, Throwable error) {
+        EnrollmentDAO.releaseReservation(command.courseId, command.reservation);
+        command.fail(error);
+    }
+
+    private void commitGroup(List<Command> group) {
+        Set<String> reloadCourses = new LinkedHashSet<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (Command command : group) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        if (command.enroll) {
+                            command.outcome = EnrollmentDAO.enrollInTransaction(conn, command.studentId, command.courseId);
+                        } else {
+                            command.dropped = EnrollmentDAO.dropInTransaction(conn, command.studentId, command.courseId);
+                        }
+                        conn.releaseSavepoint(savepoint);
+                    } catch (SQLException e) {
+                        conn.rollback(savepoint);
+                        command.error = e;
+                    }
+                }
+                conn.commit();
+                // Durable from here on: acknowledge before anything else can fail
+                acknowledge(group, reloadCourses);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+            if (!reloadCourses.isEmpty()) {
+                EnrollmentDAO.refreshSeats(conn, reloadCourses);
+            }
+
+        } catch (SQLException e) {
+            // Commands acknowledged above were committed; any others were not
+            System.err.println("Error committing enrollment group: " + e.getMessage());
+            reject(group, e);
+        }
+    }
+
+    /**
+     * Updates the seat counts and completes every command's future once the
+     * group has been committed.
+     * @param reloadCourses Collects courses whose counts must be reloaded from the database
+     */
+    private void acknowledge(List<Command> group, Set<String> reloadCourses) {
+        for (Command command : group) {
+            if (command.error != null) {
+                reject(command, command.error);
+            } else if (command.enroll) {
+                command.result.complete(EnrollmentDAO.settleEnroll(command.studentId, command.courseId,
+                                                                   command.reservation, command.outcome,
+                                                                   reloadCourses));
+            } else {
+                command.result.complete(EnrollmentDAO.settleDrop(command.studentId, command.courseId,
+                                                                 command.dropped));
+            }
+        }
+        synchronized (this) {
+            groupCount++;
+            commandCount += group.size();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("EnrollmentWriteBuffer{queued=%d, groups=%d, commands=%d, avgGroup=%.1f}",
+                queue.size(), groupCount, commandCount, groupCount == 0 ? 0.0 : (double) commandCount / groupCount);
+    }
+
+    private static class Command {
+        private final boolean enroll;
+        private final String studentId;
+        private final String courseId;
+        private final SeatCounter.Reservation reservation;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private EnrollmentDAO.EnrollOutcome outcome;
+        private boolean dropped;
+        private SQLException error;
+
+        Command(boolean enroll, String studentId, String courseId, SeatCounter.Reservation reservation) {
+            this.enroll = enroll;
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.reservation = reservation;
+        }
+
+        void fail(Throwable error) {
+            result.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.university.dao;
+
+import com.university.database.DatabaseConnection;
+import com.university.model.Student;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recomputes the stored students.gpa from graded enrollments, for
+ * GpaRecomputationJob.
+ *
+ * Students are processed in id ranges so that ranges can run in parallel.
+ * A range is streamed in id order with the student's graded courses and
+ * their credits, and each GPA is computed with the student's own
+ * convertToGradePoints scale, the same as calculateGPA() and transcripts.
+ * Only students whose stored value differs are written back, in batches.
+ *
+ * An incremental run limits each range to the students touched in a window
+ * of time: enrollments written or deleted, courses edited (credits), or the
+ * student edited (type). The window starts at the last completed run's
+ * watermark, kept in job_watermarks.
+ */
+public class GpaDAO {
+    public static final String JOB_NAME = "gpa_recomputation";
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String RANGE_SQL =
+            "SELECT s.*, e.grade, c.credits FROM students s " +
+            "LEFT JOIN (enrollment_history e JOIN courses c ON c.course_id = e.course_id) " +
+            "ON e.student_id = s.id AND e.status = 'ACTIVE' AND e.grade IS NOT NULL " +
+            "WHERE s.id >= ?";
+    private static final String RANGE_END = " AND s.id < ?";
+    private static final String TOUCHED =
+            " AND s.id IN (" +
+            "SELECT student_id FROM enrollments WHERE updated_at > ? AND updated_at <= ? " +
+            "UNION SELECT split_part(row_key, '/', 1) FROM tombstones " +
+            "WHERE table_name = 'enrollments' AND deleted_at > ? AND deleted_at <= ? " +
+            "UNION SELECT e.student_id FROM enrollment_history e JOIN courses c ON c.course_id = e.course_id " +
+            "WHERE c.updated_at > ? AND c.updated_at <= ? " +
+            "UNION SELECT id FROM students WHERE updated_at > ? AND updated_at <= ?)";
+    private static final String RANGE_ORDER = " ORDER BY s.id";
+    private static final String UPDATE_SQL = "UPDATE students SET gpa = ? WHERE id = ?";
+
+    private DatabaseConnection dbConnection;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public GpaDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets how many GPA updates are sent per batch and per commit.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Splits the student id space into ranges of about equal size.
+     * @param partitions Number of ranges wanted
+     * @return First id of each range in ascending order (each range runs to
+     *         the next one's start, the last is open-ended); empty if there are
+     *         no students, null on error
+     */
+    public List<String> getRangeStarts(int partitions) {
+        String sql = "SELECT MIN(id) AS range_start FROM " +
+                    "(SELECT id, NTILE(?) OVER (ORDER BY id) AS bucket FROM students) t " +
+                    "GROUP BY bucket ORDER BY range_start";
+        List<String> starts = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, Math.max(1, partitions));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                starts.add(rs.getString("range_start"));
+            }
+            return starts;
+
+        } catch (SQLException e) {
+            System.err.println("Error partitioning students: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Recomputes the GPA of the students in one id range.
+     * @param fromId First id of the range (inclusive)
+     * @param toId End of the range (exclusive), or null for no end
+     * @param since Only students touched after this instant, or null for all
+     * @param until End of the touched window (inclusive); ignored when since is null
+     * @return What was read and written; failed if the range could not be read
+     */
+    public RangeResult recomputeRange(String fromId, String toId, Instant since, Instant until) {
+        String sql = RANGE_SQL + (toId != null ? RANGE_END : "") + (since != null ? TOUCHED : "") + RANGE_ORDER;
+        RangeResult result = new RangeResult();
+        List<GpaUpdate> changed = new ArrayList<>();
+        GpaAccumulator current = new GpaAccumulator();
+
+        try (Connection conn = dbConnection.getConnection()) {
+            CursorQuery.forEachRow(conn, sql, fetchSize, stmt -> {
+                int index = 1;
+                stmt.setString(index++, fromId);
+                if (toId != null) {
+                    stmt.setString(index++, toId);
+                }
+                if (since != null) {
+                    Timestamp start = Timestamp.from(since);
+                    Timestamp end = Timestamp.from(until);
+                    for (int i = 0; i < 4; i++) {
+                        stmt.setTimestamp(index++, start);
+                        stmt.setTimestamp(index++, end);
+                    }
+                }
+            }, rs -> {
+                String id = rs.getString("id");
+                if (current.student == null || !current.student.getId().equals(id)) {
+                    current.finish(changed, result);
+                    current.start(StudentDAO.mapResultSetToStudent(rs), rs.getBigDecimal("gpa"));
+                }
+                BigDecimal grade = rs.getBigDecimal("grade");
+                if (grade != null) {
+                    current.add(grade.doubleValue(), rs.getInt("credits"));
+                }
+                return id;
+            }, id -> { });
+            current.finish(changed, result);
+
+            if (!changed.isEmpty()) {
+                BatchResult written = BatchWriter.execute(conn, UPDATE_SQL, changed, batchSize, (stmt, row) -> {
+                    stmt.setBigDecimal(1, row.gpa);
+                    stmt.setString(2, row.id);
+                }, row -> row.id);
+                result.updated = written.getSuccessCount();
+                result.failedUpdates = written.getFailureCount();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error recomputing GPAs: " + e.getMessage());
+            result.failed = true;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return End of the window a run starting now may cover: the database
+     *         clock less the change feed's settle time
+     */
+    public Instant getWindowEnd() {
+        try (Connection conn = dbConnection.getConnection()) {
+            return ChangeFeed.windowEnd(conn).toInstant();
+        } catch (SQLException e) {
+            System.err.println("Error reading database time: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return Window end of the last completed run, or null if there was none or on error
+     */
+    public Instant getWatermark() {
+        String sql = "SELECT watermark FROM job_watermarks WHERE job_name = ?";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, JOB_NAME);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getTimestamp("watermark").toInstant();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error reading GPA job watermark: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    public boolean saveWatermark(Instant watermark) {
+        String sql = "INSERT INTO job_watermarks (job_name, watermark) VALUES (?, ?) " +
+                    "ON CONFLICT (job_name) DO UPDATE SET watermark = EXCLUDED.watermark";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, JOB_NAME);
+            stmt.setTimestamp(2, Timestamp.from(watermark));
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error saving GPA job watermark: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Sums the graded courses of the student being streamed.
+     */
+    private static class GpaAccumulator {
+        private Student student;
+        private BigDecimal storedGpa;
+        private double totalPoints;
+        private int totalCredits;
+
+        void start(Student student, BigDecimal storedGpa) {
+            this.student = student;
+            this.storedGpa = storedGpa;
+            this.totalPoints = 0.0;
+            this.totalCredits = 0;
+        }
+
+        void add(double grade, int credits) {
+            totalPoints += student.convertToGradePoints(grade) * credits;
+            totalCredits += credits;
+        }
+
+        void finish(List<GpaUpdate> changed, RangeResult result) {
+            if (student == null) {
+                return;
+            }
+            result.scanned++;
+            double gpa = totalCredits > 0 ? totalPoints / totalCredits : 0.0;
+            // Compare at the column's scale so unchanged students are not rewritten
+            BigDecimal rounded = BigDecimal.valueOf(gpa).setScale(2, RoundingMode.HALF_UP);
+            if (storedGpa == null || storedGpa.compareTo(rounded) != 0) {
+                changed.add(new GpaUpdate(student.getId(), rounded));
+            }
+            student = null;
+        }
+    }
+
+    private static class GpaUpdate {
+        private final String id;
+        private final BigDecimal gpa;
+
+        GpaUpdate(String id, BigDecimal gpa) {
+            this.id = id;
+            this.gpa = gpa;
+        }
+    }
+
+    /**
+     * Outcome of recomputing one id range.
+     */
+    public static class RangeResult {
+        private int scanned;
+        private int updated;
+        private int failedUpdates;
+        private boolean failed;
+
+        public int getScanned() { return scanned; }
+
+        public int getUpdated() { return updated; }
+
+        public int getFailedUpdates() { return failedUpdates; }
+
+        /**
+         * @return true if the range could not be read, so nothing was written
+         */
+        public boolean isFailed() { return failed; }
+
+        @Override
+        public String toString() {
+            return String.format("RangeResult{scanned=%d, updated=%d, failedUpdates=%d%s}",
+                    scanned, updated, failedUpdates, failed ? ", failed" : "");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.university.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. Rejected rows are reported by their line number in
+ * the source file; only the first MAX_REPORTED_REJECTS are kept in detail.
+ */
+public class ImportResult {
+    public static final int MAX_REPORTED_REJECTS = 10_000;
+
+    private final String entity;
+    private long rowsRead;
+    private long rowsLoaded;
+    private long rejectedCount;
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+    private long elapsedMillis;
+    private String error;
+
+    ImportResult(String entity) {
+        this.entity = entity;
+    }
+
+    void recordRead() {
+        rowsRead++;
+    }
+
+    void recordReject(long lineNumber, String reason) {
+        rejectedCount++;
+        if (rejectedRows.size() < MAX_REPORTED_REJECTS) {
+            rejectedRows.add(new RejectedRow(lineNumber, reason));
+        }
+    }
+
+    void addLoaded(long rows) {
+        rowsLoaded += rows;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    public String getEntity() { return entity; }
+
+    public long getRowsRead() { return rowsRead; }
+
+    public long getRowsLoaded() { return rowsLoaded; }
+
+    public long getRejectedCount() { return rejectedCount; }
+
+    public List<RejectedRow> getRejectedRows() { return Collections.unmodifiableList(rejectedRows); }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    /**
+     * @return Error that aborted the import, or null if it ran to completion
+     */
+    public String getError() { return error; }
+
+    public boolean isSuccessful() { return error == null; }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportResult{entity='%s', read=%d, loaded=%d, rejected=%d, elapsed=%dms, rate=%.0f rows/s%s}",
+                entity, rowsRead, rowsLoaded, rejectedCount, elapsedMillis, getRowsPerSecond(),
+                error != null ? ", error='" + error + "'" : "");
+    }
+
+    /**
+     * A source row that was not loaded, and why.
+     */
+    public static class RejectedRow {
+        private final long lineNumber;
+        private final String reason;
+
+        public RejectedRow(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+}
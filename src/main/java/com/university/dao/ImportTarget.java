@@ -0,0 +1,395 @@
+package com.university.dao;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Describes how one CSV export maps onto a table: which columns it fills, how
+ * a source row is validated, which values must be unique within the file, and
+ * the SQL that moves a staged load into the live table.
+ *
+ * Parsed rows are plain value arrays in {@link #getColumns()} order so the
+ * same row can be written to a COPY stream or bound to a MERGE.
+ */
+abstract class ImportTarget {
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    private final String entity;
+    private final String table;
+    private final String[] columns;
+    private final int[] sqlTypes;
+    private final String[] keyColumns;
+    private final String[] requiredColumns;
+    private final String[] uniqueKeyNames;
+
+    private ImportTarget(String entity, String table, String[] columns, int[] sqlTypes, String[] keyColumns,
+                         String[] requiredColumns, String[] uniqueKeyNames) {
+        this.entity = entity;
+        this.table = table;
+        this.columns = columns;
+        this.sqlTypes = sqlTypes;
+        this.keyColumns = keyColumns;
+        this.requiredColumns = requiredColumns;
+        this.uniqueKeyNames = uniqueKeyNames;
+    }
+
+    String getEntity() { return entity; }
+
+    String getTable() { return table; }
+
+    String[] getColumns() { return columns; }
+
+    int[] getSqlTypes() { return sqlTypes; }
+
+    /**
+     * @return Names of the values returned by {@link #uniqueKeys(Object[])}, for messages
+     */
+    String[] getUniqueKeyNames() { return uniqueKeyNames; }
+
+    /**
+     * Validates one source row.
+     * @return Column values in {@link #getColumns()} order
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    abstract Object[] parse(SourceRow row);
+
+    /**
+     * @return Values that must not repeat within one file, one per unique key name
+     */
+    abstract String[] uniqueKeys(Object[] values);
+
+    /**
+     * Removes staged rows that would violate a constraint against existing
+     * data, returning each removed row's line_no and the reason.
+     */
+    abstract String rejectConflictsSql(String stagingTable);
+
+    /**
+     * Checks the header and maps column names to field positions.
+     * @throws IllegalArgumentException if a required column is missing
+     */
+    Map<String, Integer> mapHeader(String[] header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            positions.putIfAbsent(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : requiredColumns) {
+            if (!positions.containsKey(column)) {
+                throw new IllegalArgumentException("Missing required column '" + column + "' in " + entity + " header");
+            }
+        }
+        return positions;
+    }
+
+    String createStagingSql(String stagingTable) {
+        // Copies the column types but none of the constraints; dropped with the transaction
+        return "CREATE TEMP TABLE " + stagingTable + " ON COMMIT DROP AS SELECT 0::BIGINT AS line_no, "
+                + String.join(", ", columns) + " FROM " + table + " WITH NO DATA";
+    }
+
+    String copySql(String stagingTable) {
+        return "COPY " + stagingTable + " (line_no, " + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    /**
+     * Upserts every staged row into the live table in one statement.
+     */
+    String mergeSql(String stagingTable) {
+        StringBuilder updates = new StringBuilder();
+        for (String column : columns) {
+            if (!isKeyColumn(column)) {
+                if (updates.length() > 0) {
+                    updates.append(", ");
+                }
+                updates.append(column).append(" = EXCLUDED.").append(column);
+            }
+        }
+        String columnList = String.join(", ", columns);
+        return "INSERT INTO " + table + " (" + columnList + ") SELECT " + columnList + " FROM " + stagingTable
+                + " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET " + updates;
+    }
+
+    /**
+     * Single-row upsert used when COPY is not available, in H2's MERGE form.
+     */
+    String upsertSql() {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return "MERGE INTO " + table + " (" + String.join(", ", columns) + ") KEY ("
+                + String.join(", ", keyColumns) + ") VALUES (" + placeholders + ")";
+    }
+
+    private boolean isKeyColumn(String column) {
+        for (String key : keyColumns) {
+            if (key.equals(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ImportTarget students() {
+        return new ImportTarget("students", "students",
+                new String[] { "id", "student_id", "first_name", "last_name", "email", "phone_number", "major",
+                        "year_level", "gpa", "student_type", "advisor", "is_honors_student", "thesis_title",
+                        "supervisor", "degree_program" },
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.INTEGER, Types.DECIMAL, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN,
+                        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR },
+                new String[] { "id" },
+                new String[] { "id", "student_id", "first_name", "last_name", "email" },
+                new String[] { "id", "student_id", "email" }) {
+
+            @Override
+            Object[] parse(SourceRow row) {
+                String email = row.required("email", 100);
+                if (!EMAIL.matcher(email).matches()) {
+                    throw new IllegalArgumentException("Invalid email '" + email + "'");
+                }
+                String studentType = row.text("student_type", 20);
+                studentType = studentType == null ? "UNDERGRADUATE" : studentType.toUpperCase(Locale.ROOT);
+                if (!"UNDERGRADUATE".equals(studentType) && !"GRADUATE".equals(studentType)) {
+                    throw new IllegalArgumentException("Unknown student_type '" + studentType + "'");
+                }
+                BigDecimal gpa = row.decimal("gpa", BigDecimal.ZERO, new BigDecimal("4.00"));
+                Boolean honors = row.bool("is_honors_student");
+
+                return new Object[] {
+                        row.required("id", 50),
+                        row.required("student_id", 20),
+                        row.required("first_name", 50),
+                        row.required("last_name", 50),
+                        email,
+                        row.text("phone_number", 20),
+                        row.text("major", 100),
+                        row.integer("year_level", 1, 10),
+                        gpa != null ? gpa : BigDecimal.ZERO,
+                        studentType,
+                        row.text("advisor", 100),
+                        honors != null ? honors : Boolean.FALSE,
+                        row.text("thesis_title", Integer.MAX_VALUE),
+                        row.text("supervisor", 100),
+                        row.text("degree_program", 100)
+                };
+            }
+
+            @Override
+            String[] uniqueKeys(Object[] values) {
+                return new String[] { (String) values[0], (String) values[1],
+                        ((String) values[4]).toLowerCase(Locale.ROOT) };
+            }
+
+            @Override
+            String rejectConflictsSql(String stagingTable) {
+                return "DELETE FROM " + stagingTable + " st USING students s " +
+                        "WHERE s.id <> st.id AND (s.email = st.email OR s.student_id = st.student_id) " +
+                        "RETURNING st.line_no, CASE WHEN s.email = st.email " +
+                        "THEN 'email ' || st.email ELSE 'student_id ' || st.student_id END " +
+                        "|| ' already belongs to student ' || s.id";
+            }
+        };
+    }
+
+    static ImportTarget courses() {
+        return new ImportTarget("courses", "courses",
+                new String[] { "course_id", "course_name", "description", "credits", "department", "instructor_id",
+                        "schedule", "location", "capacity" },
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.VARCHAR, Types.INTEGER },
+                new String[] { "course_id" },
+                new String[] { "course_id", "course_name", "credits" },
+                new String[] { "course_id" }) {
+
+            @Override
+            Object[] parse(SourceRow row) {
+                Integer credits = row.integer("credits", 0, 20);
+                if (credits == null) {
+                    throw new IllegalArgumentException("Missing credits");
+                }
+                return new Object[] {
+                        row.required("course_id", 20),
+                        row.required("course_name", 100),
+                        row.text("description", Integer.MAX_VALUE),
+                        credits,
+                        row.text("department", 100),
+                        row.text("instructor_id", 50),
+                        row.text("schedule", 100),
+                        row.text("location", 100),
+                        row.integer("capacity", 0, 100_000)
+                };
+            }
+
+            @Override
+            String[] uniqueKeys(Object[] values) {
+                return new String[] { (String) values[0] };
+            }
+
+            @Override
+            String rejectConflictsSql(String stagingTable) {
+                return "DELETE FROM " + stagingTable + " st WHERE st.instructor_id IS NOT NULL " +
+                        "AND NOT EXISTS (SELECT 1 FROM instructors i WHERE i.id = st.instructor_id) " +
+                        "RETURNING st.line_no, 'Unknown instructor ' || st.instructor_id";
+            }
+        };
+    }
+
+    static ImportTarget enrollments() {
+        return new ImportTarget("enrollments", "enrollments",
+                new String[] { "student_id", "course_id", "grade", "status" },
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR },
+                new String[] { "student_id", "course_id" },
+                new String[] { "student_id", "course_id" },
+                new String[] { "enrollment" }) {
+
+            @Override
+            Object[] parse(SourceRow row) {
+                String status = row.text("status", 20);
+                status = status == null ? "ACTIVE" : status.toUpperCase(Locale.ROOT);
+                if (!"ACTIVE".equals(status) && !"DROPPED".equals(status)) {
+                    throw new IllegalArgumentException("Unknown status '" + status + "'");
+                }
+                return new Object[] {
+                        row.required("student_id", 50),
+                        row.required("course_id", 20),
+                        row.decimal("grade", BigDecimal.ZERO, new BigDecimal("100.00")),
+                        status
+                };
+            }
+
+            @Override
+            String[] uniqueKeys(Object[] values) {
+                return new String[] { values[0] + "/" + values[1] };
+            }
+
+            @Override
+            String rejectConflictsSql(String stagingTable) {
+                return "DELETE FROM " + stagingTable + " st " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM students s WHERE s.id = st.student_id) " +
+                        "OR NOT EXISTS (SELECT 1 FROM courses c JOIN terms t ON t.term_id = c.term_id " +
+                        "WHERE c.course_id = st.course_id AND NOT t.archived) " +
+                        "RETURNING st.line_no, CASE WHEN NOT EXISTS (SELECT 1 FROM students s WHERE s.id = st.student_id) " +
+                        "THEN 'Unknown student ' || st.student_id " +
+                        "WHEN EXISTS (SELECT 1 FROM courses c WHERE c.course_id = st.course_id) " +
+                        "THEN 'Course ' || st.course_id || ' is in an archived term' " +
+                        "ELSE 'Unknown course ' || st.course_id END";
+            }
+
+            /**
+             * Enrollments take the term of their course, which also routes
+             * them to the term's partition.
+             */
+            @Override
+            String mergeSql(String stagingTable) {
+                return "INSERT INTO enrollments (term_id, student_id, course_id, grade, status) " +
+                        "SELECT c.term_id, st.student_id, st.course_id, st.grade, st.status FROM " + stagingTable +
+                        " st JOIN courses c ON c.course_id = st.course_id " +
+                        "ON CONFLICT (term_id, student_id, course_id) DO UPDATE " +
+                        "SET grade = EXCLUDED.grade, status = EXCLUDED.status";
+            }
+
+            @Override
+            String upsertSql() {
+                return "MERGE INTO enrollments (term_id, student_id, course_id, grade, status) " +
+                        "KEY (term_id, student_id, course_id) " +
+                        "SELECT c.term_id, v.student_id, v.course_id, v.grade, v.status FROM " +
+                        "(SELECT CAST(? AS VARCHAR(50)) AS student_id, CAST(? AS VARCHAR(20)) AS course_id, " +
+                        "CAST(? AS DECIMAL(5,2)) AS grade, CAST(? AS VARCHAR(20)) AS status) v " +
+                        "JOIN courses c ON c.course_id = v.course_id";
+            }
+        };
+    }
+
+    /**
+     * Typed, validating access to one CSV record by column name.
+     */
+    static class SourceRow {
+        private final Map<String, Integer> header;
+        private final String[] fields;
+
+        SourceRow(Map<String, Integer> header, String[] fields) {
+            this.header = header;
+            this.fields = fields;
+        }
+
+        /**
+         * @return Trimmed value, or null if the column is absent or blank
+         */
+        String text(String column, int maxLength) {
+            Integer position = header.get(column);
+            if (position == null || position >= fields.length) {
+                return null;
+            }
+            String value = fields[position].trim();
+            if (value.isEmpty()) {
+                return null;
+            }
+            if (value.length() > maxLength) {
+                throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+            }
+            return value;
+        }
+
+        String required(String column, int maxLength) {
+            String value = text(column, maxLength);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing " + column);
+            }
+            return value;
+        }
+
+        Integer integer(String column, int min, int max) {
+            String value = text(column, 11);
+            if (value == null) {
+                return null;
+            }
+            int parsed;
+            try {
+                parsed = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a whole number: '" + value + "'");
+            }
+            if (parsed < min || parsed > max) {
+                throw new IllegalArgumentException(column + " must be between " + min + " and " + max);
+            }
+            return parsed;
+        }
+
+        BigDecimal decimal(String column, BigDecimal min, BigDecimal max) {
+            String value = text(column, 32);
+            if (value == null) {
+                return null;
+            }
+            BigDecimal parsed;
+            try {
+                parsed = new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a number: '" + value + "'");
+            }
+            if (parsed.compareTo(min) < 0 || parsed.compareTo(max) > 0) {
+                throw new IllegalArgumentException(column + " must be between " + min + " and " + max);
+            }
+            return parsed;
+        }
+
+        Boolean bool(String column) {
+            String value = text(column, 5);
+            if (value == null) {
+                return null;
+            }
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "true": case "t": case "yes": case "y": case "1":
+                    return Boolean.TRUE;
+                case "false": case "f": case "no": case "n": case "0":
+                    return Boolean.FALSE;
+                default:
+                    throw new IllegalArgumentException(column + " is not a boolean: '" + value + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.university.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * The next-page token encodes the sort key of the last row on this page; the
+ * following query seeks past it with a row-value comparison, so every page
+ * costs an index range scan instead of skipping OFFSET rows.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+    
+    public Page(List<T> items, String nextPageToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+    
+    public static <T> Page<T> empty() {
+        return new Page<>(new ArrayList<>(), null);
+    }
+    
+    public List<T> getItems() { return items; }
+    
+    /**
+     * @return Token for the next page, or null if this is the last page
+     */
+    public String getNextPageToken() { return nextPageToken; }
+    
+    public boolean hasNextPage() { return nextPageToken != null; }
+    
+    /**
+     * Encodes sort-key values into an opaque token. Each value is
+     * length-prefixed, so values may contain any character.
+     */
+    static String encodeToken(String... keyValues) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : keyValues) {
+            sb.append(value.length()).append(':').append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a token produced by encodeToken.
+     * @throws IllegalArgumentException if the token is malformed or has the wrong number of values
+     */
+    static String[] decodeToken(String token, int expectedValues) {
+        String[] values = new String[expectedValues];
+        String decoded;
+        int pos = 0;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            for (int i = 0; i < expectedValues; i++) {
+                int colon = decoded.indexOf(':', pos);
+                int length = Integer.parseInt(decoded.substring(pos, colon));
+                values[i] = decoded.substring(colon + 1, colon + 1 + length);
+                pos = colon + 1 + length;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+        if (pos != decoded.length()) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        return values;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Page{items=%d, hasNext=%s}", items.size(), hasNextPage());
+    }
+}
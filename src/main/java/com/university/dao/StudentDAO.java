@@ -1,64 +1,74 @@
 package com.university.dao;
 
+import com.university.cache.EnrollmentIndex;
+import com.university.cache.SeatCounter;
+import com.university.cache.StudentCache;
 import com.university.database.DatabaseConnection;
 import com.university.model.Student;
 import com.university.model.UndergraduateStudent;
 import com.university.model.GraduateStudent;
 
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class StudentDAO {
+    private static final String INSERT_STUDENT_SQL =
+            "INSERT INTO students (id, student_id, first_name, last_name, email, phone_number, " +
+            "major, year_level, gpa, student_type, advisor, is_honors_student, thesis_title, " +
+            "supervisor, degree_program) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STUDENT_SQL =
+            "UPDATE students SET student_id = ?, first_name = ?, last_name = ?, " +
+            "email = ?, phone_number = ?, major = ?, year_level = ?, gpa = ?, " +
+            "student_type = ?, advisor = ?, is_honors_student = ?, thesis_title = ?, " +
+            "supervisor = ?, degree_program = ? WHERE id = ?";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int MULTI_GET_CHUNK_SIZE = 1000;
+    
     private DatabaseConnection dbConnection;
+    private StudentCache studentCache;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
     
     public StudentDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.studentCache = StudentCache.getInstance();
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Sets how many rows the bulk write methods send per batch and commit.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+    
+    public int getFetchSize() {
+        return fetchSize;
+    }
+    
+    /**
+     * Sets how many rows the streaming read methods pull from the cursor at a time.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
     }
     
     public boolean createStudent(Student student) {
-        String sql = "INSERT INTO students (id, student_id, first_name, last_name, email, phone_number, " +
-                    "major, year_level, gpa, student_type, advisor, is_honors_student, thesis_title, " +
-                    "supervisor, degree_program) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_STUDENT_SQL)) {
             
-            stmt.setString(1, student.getId());
-            stmt.setString(2, student.getStudentId());
-            stmt.setString(3, student.getFirstName());
-            stmt.setString(4, student.getLastName());
-            stmt.setString(5, student.getEmail());
-            stmt.setString(6, student.getPhoneNumber());
-            stmt.setString(7, student.getMajor());
-            stmt.setInt(8, student.getYearLevel());
-            stmt.setDouble(9, student.getGpa());
-            
-            // Set student type specific fields
-            if (student instanceof UndergraduateStudent) {
-                UndergraduateStudent undergrad = (UndergraduateStudent) student;
-                stmt.setString(10, "UNDERGRADUATE");
-                stmt.setString(11, undergrad.getAdvisor());
-                stmt.setBoolean(12, undergrad.isHonorsStudent());
-                stmt.setString(13, null);
-                stmt.setString(14, null);
-                stmt.setString(15, null);
-            } else if (student instanceof GraduateStudent) {
-                GraduateStudent grad = (GraduateStudent) student;
-                stmt.setString(10, "GRADUATE");
-                stmt.setString(11, null);
-                stmt.setBoolean(12, false);
-                stmt.setString(13, grad.getThesisTitle());
-                stmt.setString(14, grad.getSupervisor());
-                stmt.setString(15, grad.getDegreeProgram());
-            } else {
-                stmt.setString(10, "UNDERGRADUATE");
-                stmt.setString(11, null);
-                stmt.setBoolean(12, false);
-                stmt.setString(13, null);
-                stmt.setString(14, null);
-                stmt.setString(15, null);
-            }
+            bindInsert(stmt, student);
             
             int rowsAffected = stmt.executeUpdate();
             return rowsAffected > 0;
@@ -66,47 +76,103 @@ public class StudentDAO {
         } catch (SQLException e) {
             System.err.println("Error creating student: " + e.getMessage());
             return false;
+        } finally {
+            // Clears any negative entry remembered for the new keys
+            studentCache.invalidate(student.getId(), student.getStudentId());
         }
     }
     
+    /**
+     * Inserts many students using JDBC batching, committing every batchSize rows.
+     * @param students Students to insert
+     * @return Per-row results; failures are keyed by student id
+     */
+    public BatchResult createStudents(Collection<? extends Student> students) {
+        return writeBatch(INSERT_STUDENT_SQL, new ArrayList<>(students), this::bindInsert, "creating students");
+    }
+    
     public Student getStudentById(String studentId) {
-        String sql = "SELECT * FROM students WHERE id = ?";
-        
+        try {
+            return studentCache.getById(studentId, id -> loadStudent("SELECT * FROM students WHERE id = ?", id));
+        } catch (SQLException e) {
+            System.err.println("Error retrieving student: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    public Student getStudentByStudentId(String studentId) {
+        try {
+            return studentCache.getByStudentId(studentId,
+                    number -> loadStudent("SELECT * FROM students WHERE student_id = ?", number));
+        } catch (SQLException e) {
+            System.err.println("Error retrieving student by student ID: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * @return Cache behind getStudentById and getStudentByStudentId, for
+     *         statistics and for switching caching off
+     */
+    public StudentCache getCache() {
+        return studentCache;
+    }
+    
+    private Student loadStudent(String sql, String key) throws SQLException {
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, studentId);
+            stmt.setString(1, key);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
                 return mapResultSetToStudent(rs);
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error retrieving student: " + e.getMessage());
         }
         
         return null;
     }
     
-    public Student getStudentByStudentId(String studentId) {
-        String sql = "SELECT * FROM students WHERE student_id = ?";
+    /**
+     * Loads many students by id in a constant number of round trips, binding
+     * the ids as one array parameter per chunk.
+     * @param ids Student ids; duplicates are ignored
+     * @return Students found, in the order their ids were given
+     */
+    public List<Student> getStudentsByIds(Collection<String> ids) {
+        String sql = "SELECT * FROM students WHERE id = ANY(?)";
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<String, Student> found = new HashMap<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, studentId);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToStudent(rs);
+            for (int start = 0; start < distinctIds.size(); start += MULTI_GET_CHUNK_SIZE) {
+                List<String> chunk = distinctIds.subList(start, Math.min(distinctIds.size(), start + MULTI_GET_CHUNK_SIZE));
+                Array idArray = conn.createArrayOf("varchar", chunk.toArray());
+                stmt.setArray(1, idArray);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Student student = mapResultSetToStudent(rs);
+                        found.put(student.getId(), student);
+                    }
+                }
+                idArray.free();
             }
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving student by student ID: " + e.getMessage());
+            System.err.println("Error retrieving students by ids: " + e.getMessage());
         }
         
-        return null;
+        List<Student> students = new ArrayList<>(found.size());
+        for (String id : distinctIds) {
+            Student student = found.get(id);
+            if (student != null) {
+                students.add(student);
+            }
+        }
+        return students;
     }
     
     public List<Student> getAllStudents() {
@@ -128,51 +194,94 @@ public class StudentDAO {
         return students;
     }
     
-    public boolean updateStudent(Student student) {
-        String sql = "UPDATE students SET student_id = ?, first_name = ?, last_name = ?, " +
-                    "email = ?, phone_number = ?, major = ?, year_level = ?, gpa = ?, " +
-                    "student_type = ?, advisor = ?, is_honors_student = ?, thesis_title = ?, " +
-                    "supervisor = ?, degree_program = ? WHERE id = ?";
+    /**
+     * Gets one page of students ordered by last name, first name and id.
+     * @param pageToken Token from the previous page, or null for the first page
+     * @param pageSize Maximum number of students on the page
+     * @return Page of students and the token for the next one
+     */
+    public Page<Student> getStudentsPage(String pageToken, int pageSize) {
+        String[] after = pageToken != null ? Page.decodeToken(pageToken, 3) : null;
+        String sql = "SELECT * FROM students " +
+                    (after != null ? "WHERE (last_name, first_name, id) > (?, ?, ?) " : "") +
+                    "ORDER BY last_name, first_name, id LIMIT ?";
+        List<Student> students = new ArrayList<>();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, student.getStudentId());
-            stmt.setString(2, student.getFirstName());
-            stmt.setString(3, student.getLastName());
-            stmt.setString(4, student.getEmail());
-            stmt.setString(5, student.getPhoneNumber());
-            stmt.setString(6, student.getMajor());
-            stmt.setInt(7, student.getYearLevel());
-            stmt.setDouble(8, student.getGpa());
+            int index = 1;
+            if (after != null) {
+                stmt.setString(index++, after[0]);
+                stmt.setString(index++, after[1]);
+                stmt.setString(index++, after[2]);
+            }
+            // One extra row tells us whether another page exists
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
             
-            // Set student type specific fields
-            if (student instanceof UndergraduateStudent) {
-                UndergraduateStudent undergrad = (UndergraduateStudent) student;
-                stmt.setString(9, "UNDERGRADUATE");
-                stmt.setString(10, undergrad.getAdvisor());
-                stmt.setBoolean(11, undergrad.isHonorsStudent());
-                stmt.setString(12, null);
-                stmt.setString(13, null);
-                stmt.setString(14, null);
-            } else if (student instanceof GraduateStudent) {
-                GraduateStudent grad = (GraduateStudent) student;
-                stmt.setString(9, "GRADUATE");
-                stmt.setString(10, null);
-                stmt.setBoolean(11, false);
-                stmt.setString(12, grad.getThesisTitle());
-                stmt.setString(13, grad.getSupervisor());
-                stmt.setString(14, grad.getDegreeProgram());
-            } else {
-                stmt.setString(9, "UNDERGRADUATE");
-                stmt.setString(10, null);
-                stmt.setBoolean(11, false);
-                stmt.setString(12, null);
-                stmt.setString(13, null);
-                stmt.setString(14, null);
+            while (rs.next()) {
+                students.add(mapResultSetToStudent(rs));
             }
             
-            stmt.setString(15, student.getId());
+        } catch (SQLException e) {
+            System.err.println("Error retrieving students page: " + e.getMessage());
+            return Page.empty();
+        }
+        
+        if (students.size() <= pageSize) {
+            return new Page<>(students, null);
+        }
+        
+        List<Student> items = new ArrayList<>(students.subList(0, pageSize));
+        Student last = items.get(items.size() - 1);
+        return new Page<>(items, Page.encodeToken(last.getLastName(), last.getFirstName(), last.getId()));
+    }
+    
+    /**
+     * Streams every student, ordered like getAllStudents(), to the action
+     * without holding the result in memory.
+     * @param action Called once per student
+     * @return Number of students processed, or -1 if the query failed
+     */
+    public int forEachStudent(Consumer<? super Student> action) {
+        String sql = "SELECT * FROM students ORDER BY last_name, first_name";
+        
+        try (Connection conn = dbConnection.getConnection()) {
+            return CursorQuery.forEachRow(conn, sql, fetchSize, CursorQuery.NO_PARAMETERS,
+                                          StudentDAO::mapResultSetToStudent, action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming students: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Streams students created or updated after the watermark, oldest change
+     * first. Deleted students are reported by TombstoneDAO.
+     * @param watermark Watermark returned by the previous call, or null to read all students
+     * @param action Called once per changed student
+     * @return Watermark for the next call, or null if the query failed
+     */
+    public Instant changedSince(Instant watermark, Consumer<? super Student> action) {
+        String sql = "SELECT * FROM students WHERE updated_at > ? AND updated_at <= ? ORDER BY updated_at, id";
+        
+        try (Connection conn = dbConnection.getConnection()) {
+            return ChangeFeed.forEachChange(conn, sql, watermark, fetchSize, (stmt, start, end) -> {
+                stmt.setTimestamp(1, start);
+                stmt.setTimestamp(2, end);
+            }, StudentDAO::mapResultSetToStudent, action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming changed students: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    public boolean updateStudent(Student student) {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STUDENT_SQL)) {
+            
+            bindUpdate(stmt, student);
             
             int rowsAffected = stmt.executeUpdate();
             return rowsAffected > 0;
@@ -180,22 +289,65 @@ public class StudentDAO {
         } catch (SQLException e) {
             System.err.println("Error updating student: " + e.getMessage());
             return false;
+        } finally {
+            studentCache.invalidate(student.getId(), student.getStudentId());
         }
     }
     
+    /**
+     * Updates many students using JDBC batching, committing every batchSize rows.
+     * Students whose id does not exist are reported as failures.
+     * @param students Students to update
+     * @return Per-row results; failures are keyed by student id
+     */
+    public BatchResult updateStudents(Collection<? extends Student> students) {
+        return writeBatch(UPDATE_STUDENT_SQL, new ArrayList<>(students), this::bindUpdate, "updating students");
+    }
+    
+    /**
+     * Deletes a student. Their enrollments go with them, so the seats they
+     * held are released in the same transaction.
+     */
     public boolean deleteStudent(String studentId) {
+        String releaseSql = "UPDATE courses SET enrolled_count = enrolled_count - 1 " +
+                    "WHERE enrolled_count > 0 AND course_id IN " +
+                    "(SELECT course_id FROM enrollments WHERE student_id = ? AND status = 'ACTIVE') " +
+                    "RETURNING course_id";
         String sql = "DELETE FROM students WHERE id = ?";
+        List<String> releasedCourses = new ArrayList<>();
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbConnection.getConnection()) {
+            int rowsAffected;
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement release = conn.prepareStatement(releaseSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                release.setString(1, studentId);
+                try (ResultSet rs = release.executeQuery()) {
+                    while (rs.next()) {
+                        releasedCourses.add(rs.getString("course_id"));
+                    }
+                }
+                stmt.setString(1, studentId);
+                rowsAffected = stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
             
-            stmt.setString(1, studentId);
-            int rowsAffected = stmt.executeUpdate();
+            releasedCourses.forEach(SeatCounter.getInstance()::release);
+            EnrollmentIndex.getInstance().removeStudent(studentId);
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error deleting student: " + e.getMessage());
             return false;
+        } finally {
+            studentCache.invalidate(studentId, null);
         }
     }
     
@@ -220,7 +372,80 @@ public class StudentDAO {
         return students;
     }
     
-    private Student mapResultSetToStudent(ResultSet rs) throws SQLException {
+    private BatchResult writeBatch(String sql, List<Student> students,
+                                   BatchWriter.Binder<Student> binder, String action) {
+        try (Connection conn = dbConnection.getConnection()) {
+            return BatchWriter.execute(conn, sql, students, batchSize, binder, Student::getId);
+        } catch (SQLException e) {
+            System.err.println("Error " + action + ": " + e.getMessage());
+            BatchResult result = new BatchResult();
+            for (int i = 0; i < students.size(); i++) {
+                result.recordFailure(i, students.get(i).getId(), e.getMessage());
+            }
+            return result;
+        } finally {
+            for (Student student : students) {
+                studentCache.invalidate(student.getId(), student.getStudentId());
+            }
+        }
+    }
+    
+    private void bindInsert(PreparedStatement stmt, Student student) throws SQLException {
+        stmt.setString(1, student.getId());
+        bindStudentColumns(stmt, student, 1);
+    }
+    
+    private void bindUpdate(PreparedStatement stmt, Student student) throws SQLException {
+        bindStudentColumns(stmt, student, 0);
+        stmt.setString(15, student.getId());
+    }
+    
+    /**
+     * Binds the fourteen columns shared by INSERT and UPDATE, from student_id
+     * through degree_program, starting after the given parameter offset.
+     */
+    private void bindStudentColumns(PreparedStatement stmt, Student student, int offset) throws SQLException {
+        stmt.setString(offset + 1, student.getStudentId());
+        stmt.setString(offset + 2, student.getFirstName());
+        stmt.setString(offset + 3, student.getLastName());
+        stmt.setString(offset + 4, student.getEmail());
+        stmt.setString(offset + 5, student.getPhoneNumber());
+        stmt.setString(offset + 6, student.getMajor());
+        stmt.setInt(offset + 7, student.getYearLevel());
+        stmt.setDouble(offset + 8, student.getGpa());
+        
+        // Set student type specific fields
+        if (student instanceof UndergraduateStudent) {
+            UndergraduateStudent undergrad = (UndergraduateStudent) student;
+            stmt.setString(offset + 9, "UNDERGRADUATE");
+            stmt.setString(offset + 10, undergrad.getAdvisor());
+            stmt.setBoolean(offset + 11, undergrad.isHonorsStudent());
+            stmt.setString(offset + 12, null);
+            stmt.setString(offset + 13, null);
+            stmt.setString(offset + 14, null);
+        } else if (student instanceof GraduateStudent) {
+            GraduateStudent grad = (GraduateStudent) student;
+            stmt.setString(offset + 9, "GRADUATE");
+            stmt.setString(offset + 10, null);
+            stmt.setBoolean(offset + 11, false);
+            stmt.setString(offset + 12, grad.getThesisTitle());
+            stmt.setString(offset + 13, grad.getSupervisor());
+            stmt.setString(offset + 14, grad.getDegreeProgram());
+        } else {
+            stmt.setString(offset + 9, "UNDERGRADUATE");
+            stmt.setString(offset + 10, null);
+            stmt.setBoolean(offset + 11, false);
+            stmt.setString(offset + 12, null);
+            stmt.setString(offset + 13, null);
+            stmt.setString(offset + 14, null);
+        }
+    }
+    
+    /**
+     * Maps a row containing the students columns. Package-private so joined
+     * queries in other DAOs build students the same way.
+     */
+    static Student mapResultSetToStudent(ResultSet rs) throws SQLException {
         String id = rs.getString("id");
         String studentId = rs.getString("student_id");
         String firstName = rs.getString("first_name");
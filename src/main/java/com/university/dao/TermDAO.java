@@ -0,0 +1,253 @@
+package com.university.dao;
+
+import com.university.database.DatabaseConnection;
+import com.university.model.Term;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Terms and the enrollments partitions that go with them.
+ *
+ * Every term owns one range partition of enrollments, named
+ * enrollments_&lt;termId&gt;. createTerm() creates it with the term; archiveTerm()
+ * detaches it and attaches it to archive.enrollments instead, so it no
+ * longer costs anything to queries on the live table but still shows in the
+ * enrollment_history view that transcripts read.
+ */
+public class TermDAO {
+    static final String ARCHIVE_SCHEMA = "archive";
+
+    private DatabaseConnection dbConnection;
+
+    public TermDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * @return Name of the enrollments partition holding the term
+     */
+    static String partitionName(int termId) {
+        return "enrollments_" + termId;
+    }
+
+    /**
+     * Creates a term and its enrollments partition in one transaction.
+     * @return true if the term was created
+     */
+    public boolean createTerm(Term term) {
+        String sql = "INSERT INTO terms (term_id, name, start_date, end_date) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = dbConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, term.getTermId());
+                stmt.setString(2, term.getName());
+                stmt.setDate(3, Date.valueOf(term.getStartDate()));
+                stmt.setDate(4, Date.valueOf(term.getEndDate()));
+                stmt.executeUpdate();
+                createPartition(conn, term.getTermId());
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error creating term: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public Term getTerm(int termId) {
+        String sql = "SELECT * FROM terms WHERE term_id = ?";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, termId);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return mapResultSetToTerm(rs);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving term: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The latest term that has started, or the first term if none has
+     *         started yet; null if there are no terms
+     */
+    public Term getCurrentTerm() {
+        String sql = "SELECT * FROM terms WHERE term_id = current_term_id()";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return mapResultSetToTerm(rs);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving current term: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * @return All terms, oldest first
+     */
+    public List<Term> getAllTerms() {
+        String sql = "SELECT * FROM terms ORDER BY term_id";
+        List<Term> terms = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                terms.add(mapResultSetToTerm(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving terms: " + e.getMessage());
+        }
+
+        return terms;
+    }
+
+    /**
+     * Creates the enrollments partition of every live term that lacks one,
+     * for terms inserted without createTerm().
+     * @return IDs of the terms whose partition was created, or null on error
+     */
+    public List<Integer> createMissingPartitions() {
+        String sql = "SELECT term_id FROM terms WHERE NOT archived " +
+                    "AND to_regclass('enrollments_' || term_id) IS NULL ORDER BY term_id";
+        List<Integer> created = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    created.add(rs.getInt("term_id"));
+                }
+            }
+            for (int termId : created) {
+                createPartition(conn, termId);
+            }
+            return created;
+
+        } catch (SQLException e) {
+            System.err.println("Error creating enrollment partitions: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Terms that ended before the given number of most recent ended terms
+     * and are still live.
+     * @param retainedTerms How many of the most recently ended terms to keep live
+     * @return Terms that may be archived, oldest first
+     */
+    public List<Term> getArchivableTerms(int retainedTerms) {
+        String sql = "SELECT * FROM terms WHERE NOT archived AND end_date < CURRENT_DATE " +
+                    "AND term_id < current_term_id() ORDER BY term_id DESC OFFSET ?";
+        List<Term> terms = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, Math.max(0, retainedTerms));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                terms.add(0, mapResultSetToTerm(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving archivable terms: " + e.getMessage());
+        }
+
+        return terms;
+    }
+
+    /**
+     * Moves a past term's enrollments partition from enrollments to
+     * archive.enrollments. The term's rows leave the live table, so they no
+     * longer appear in enrollment queries other than enrollment_history, and
+     * the term can no longer be enrolled in. The detach briefly locks the
+     * enrollments table.
+     * @return true if the term was archived
+     */
+    public boolean archiveTerm(int termId) {
+        String checkSql = "SELECT archived, term_id >= current_term_id() AS live FROM terms WHERE term_id = ? FOR UPDATE";
+        String markSql = "UPDATE terms SET archived = TRUE WHERE term_id = ?";
+        String partition = partitionName(termId);
+
+        try (Connection conn = dbConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(checkSql)) {
+                    stmt.setInt(1, termId);
+                    ResultSet rs = stmt.executeQuery();
+                    if (!rs.next() || rs.getBoolean("archived") || rs.getBoolean("live")) {
+                        System.err.println("Term " + termId + " is unknown, already archived, or not yet over");
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ALTER TABLE enrollments DETACH PARTITION " + partition);
+                    stmt.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                    stmt.execute("ALTER TABLE " + ARCHIVE_SCHEMA + ".enrollments ATTACH PARTITION " +
+                            ARCHIVE_SCHEMA + "." + partition +
+                            " FOR VALUES FROM (" + termId + ") TO (" + (termId + 1) + ")");
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(markSql)) {
+                    stmt.setInt(1, termId);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error archiving term: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void createPartition(Connection conn, int termId) throws SQLException {
+        // termId is an int, so building the DDL from it is safe
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + partitionName(termId) + " PARTITION OF enrollments " +
+                    "FOR VALUES FROM (" + termId + ") TO (" + (termId + 1) + ")");
+        }
+    }
+
+    private static Term mapResultSetToTerm(ResultSet rs) throws SQLException {
+        Term term = new Term(rs.getInt("term_id"), rs.getString("name"),
+                             rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate());
+        term.setArchived(rs.getBoolean("archived"));
+        return term;
+    }
+}
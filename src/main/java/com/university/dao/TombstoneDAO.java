@@ -0,0 +1,113 @@
+package com.university.dao;
+
+import com.university.database.DatabaseConnection;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Reads the tombstones that delete triggers leave behind, so delta sync can
+ * propagate deletes. Enrollment keys are "studentId/courseId".
+ *
+ * Consumers should apply the deletes for a window before the changes, so a
+ * row that was deleted and then re-created ends up present. Tombstones are
+ * kept until purged; a consumer whose watermark is older than the purge
+ * cutoff must do a full resync.
+ */
+public class TombstoneDAO {
+    public static final String STUDENTS = "students";
+    public static final String INSTRUCTORS = "instructors";
+    public static final String COURSES = "courses";
+    public static final String ENROLLMENTS = "enrollments";
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private DatabaseConnection dbConnection;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    public TombstoneDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     * Streams the keys of rows deleted from a table after the watermark.
+     * @param tableName One of the table name constants
+     * @param watermark Watermark returned by the previous call, or null for all tombstones
+     * @param action Receives each tombstone in deletion order
+     * @return Watermark for the next call, or null if the read failed
+     */
+    public Instant forEachDeletedSince(String tableName, Instant watermark, Consumer<? super Tombstone> action) {
+        String sql = "SELECT table_name, row_key, deleted_at FROM tombstones " +
+                    "WHERE table_name = ? AND deleted_at > ? AND deleted_at <= ? ORDER BY deleted_at, id";
+
+        try (Connection conn = dbConnection.getConnection()) {
+            return ChangeFeed.forEachChange(conn, sql, watermark, fetchSize, (stmt, start, end) -> {
+                stmt.setString(1, tableName);
+                stmt.setTimestamp(2, start);
+                stmt.setTimestamp(3, end);
+            }, TombstoneDAO::mapResultSetToTombstone, action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming tombstones: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Deletes tombstones recorded before the cutoff.
+     * @return Number of tombstones removed, or -1 on error
+     */
+    public int purgeOlderThan(Instant cutoff) {
+        String sql = "DELETE FROM tombstones WHERE deleted_at < ?";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.from(cutoff));
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("Error purging tombstones: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static Tombstone mapResultSetToTombstone(ResultSet rs) throws SQLException {
+        return new Tombstone(rs.getString("table_name"), rs.getString("row_key"),
+                             rs.getTimestamp("deleted_at").toInstant());
+    }
+
+    /**
+     * A deleted row's table and key.
+     */
+    public static class Tombstone {
+        private final String tableName;
+        private final String rowKey;
+        private final Instant deletedAt;
+
+        public Tombstone(String tableName, String rowKey, Instant deletedAt) {
+            this.tableName = tableName;
+            this.rowKey = rowKey;
+            this.deletedAt = deletedAt;
+        }
+
+        public String getTableName() { return tableName; }
+
+        public String getRowKey() { return rowKey; }
+
+        public Instant getDeletedAt() { return deletedAt; }
+
+        @Override
+        public String toString() {
+            return String.format("Tombstone{table='%s', key='%s', deletedAt=%s}", tableName, rowKey, deletedAt);
+        }
+    }
+}
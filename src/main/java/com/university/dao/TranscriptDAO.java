@@ -0,0 +1,79 @@
+package com.university.dao;
+
+import com.university.database.DatabaseConnection;
+import com.university.model.Student;
+import com.university.model.Transcript;
+
+import java.sql.*;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads transcripts: each student with every graded enrollment from all
+ * terms, live and archived, in one query.
+ */
+public class TranscriptDAO {
+    private static final String TRANSCRIPTS_SQL =
+            "SELECT s.*, e.term_id, e.course_id, e.grade, c.course_name, c.credits FROM students s " +
+            "LEFT JOIN (enrollment_history e JOIN courses c ON c.course_id = e.course_id) " +
+            "ON e.student_id = s.id AND e.status = 'ACTIVE' AND e.grade IS NOT NULL " +
+            "WHERE s.id = ANY(?) ORDER BY s.id, e.term_id, c.course_name";
+
+    private DatabaseConnection dbConnection;
+
+    public TranscriptDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * @param studentId Student ID
+     * @return The student's transcript, or null if the student does not exist or on error
+     */
+    public Transcript getTranscript(String studentId) {
+        return getTranscripts(Collections.singletonList(studentId)).get(studentId);
+    }
+
+    /**
+     * Loads the transcripts of several students with one query on one
+     * connection. Callers should keep the id list to a few thousand.
+     * @param studentIds Student IDs
+     * @return Transcripts keyed by student ID; unknown students are left out,
+     *         and the map is empty on error
+     */
+    public Map<String, Transcript> getTranscripts(Collection<String> studentIds) {
+        Map<String, Transcript> transcripts = new LinkedHashMap<>();
+        if (studentIds.isEmpty()) {
+            return transcripts;
+        }
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(TRANSCRIPTS_SQL)) {
+
+            stmt.setArray(1, conn.createArrayOf("varchar", studentIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+
+            Transcript current = null;
+            while (rs.next()) {
+                String id = rs.getString("id");
+                if (current == null || !current.getStudent().getId().equals(id)) {
+                    Student student = StudentDAO.mapResultSetToStudent(rs);
+                    current = new Transcript(student);
+                    transcripts.put(id, current);
+                }
+                String courseId = rs.getString("course_id");
+                if (courseId != null) {
+                    current.addEntry(rs.getInt("term_id"), courseId, rs.getString("course_name"),
+                                     rs.getInt("credits"), rs.getDouble("grade"));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error retrieving transcripts: " + e.getMessage());
+            transcripts.clear();
+        }
+
+        return transcripts;
+    }
+}
@@ -0,0 +1,285 @@
+package com.university.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of JDBC connections.
+ *
+ * Connections are validated on borrow (unless they were returned moments ago),
+ * retired once they pass their maximum lifetime, and evicted after sitting idle
+ * above the minimum size. Dead connections are discarded and replaced on the
+ * next borrow, so the pool recovers by itself after a database restart.
+ */
+public class ConnectionPool {
+    /** Connections returned within this window are trusted without a validation round trip. */
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final String url;
+    private final Properties properties;
+    private final PoolConfig config;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private volatile boolean lastFillFailed;
+
+    public ConnectionPool(String url, Properties properties, PoolConfig config) {
+        this.url = url;
+        this.properties = properties;
+        this.config = config;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.execute(this::fillToMinimum);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, config.getHousekeepingIntervalMillis(),
+                config.getHousekeepingIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured acquire timeout.
+     * Closing the returned connection hands it back to the pool.
+     * @return Pooled connection
+     * @throws SQLException if no connection becomes available in time or the database is unreachable
+     */
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getAcquireTimeoutMillis());
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool has been shut down", "08003");
+                }
+
+                PooledConnection pooled = idle.pollFirst();
+                if (pooled == null && reserveSlot()) {
+                    pooled = openConnection();
+                    activeConnections.incrementAndGet();
+                    return pooled.borrow();
+                }
+
+                if (pooled == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out after " + config.getAcquireTimeoutMillis() +
+                                "ms waiting for a database connection (" + this + ")", "08001");
+                    }
+                    waitingThreads.incrementAndGet();
+                    try {
+                        pooled = idle.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                    } finally {
+                        waitingThreads.decrementAndGet();
+                    }
+                    if (pooled == null) {
+                        continue;
+                    }
+                }
+
+                if (isUsable(pooled)) {
+                    activeConnections.incrementAndGet();
+                    return pooled.borrow();
+                }
+                discard(pooled);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Returns a connection to the pool. Called by the connection proxy on close().
+     */
+    void release(PooledConnection pooled) {
+        activeConnections.decrementAndGet();
+        if (closed || pooled.isBroken() || pooled.isExpired(System.currentTimeMillis(), config.getMaxLifetimeMillis())
+                || !pooled.reset()) {
+            discard(pooled);
+            return;
+        }
+        pooled.touch();
+        idle.offerFirst(pooled);
+    }
+
+    /**
+     * Closes every idle connection and stops housekeeping. Connections that are
+     * still borrowed are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads.get();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * Fraction of prepareStatement calls served from the per-connection caches.
+     * @return Hit ratio between 0 and 1
+     */
+    public double getStatementCacheHitRatio() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.incrementAndGet();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.incrementAndGet();
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (pooled.isBroken() || pooled.isExpired(now, config.getMaxLifetimeMillis())) {
+            return false;
+        }
+        if (now - pooled.getLastUsedAt() < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        return pooled.isValid(config.getValidationTimeoutSeconds());
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Opens a physical connection for a slot that has already been reserved.
+     * The slot is given back if the database cannot be reached.
+     */
+    private PooledConnection openConnection() throws SQLException {
+        try {
+            PooledConnection pooled = new PooledConnection(this, DriverManager.getConnection(url, properties),
+                    config.getStatementCacheSize());
+            if (lastFillFailed) {
+                lastFillFailed = false;
+                System.out.println("Database connection re-established.");
+            }
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.closePhysical();
+        replaceForWaiters();
+    }
+
+    /**
+     * Waiters are parked on the idle queue, so a slot freed by a discard would
+     * go unnoticed until their timeout. Open a connection into the queue on
+     * the housekeeper thread to wake one of them.
+     */
+    private void replaceForWaiters() {
+        if (closed || waitingThreads.get() == 0) {
+            return;
+        }
+        try {
+            housekeeper.execute(() -> {
+                if (closed || waitingThreads.get() == 0 || !reserveSlot()) {
+                    return;
+                }
+                try {
+                    idle.offerFirst(openConnection());
+                } catch (SQLException e) {
+                    System.err.println("Unable to open pooled database connection: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The pool is shutting down
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle) {
+            boolean expired = pooled.isExpired(now, config.getMaxLifetimeMillis());
+            boolean idleTooLong = config.getIdleTimeoutMillis() > 0
+                    && now - pooled.getLastUsedAt() >= config.getIdleTimeoutMillis()
+                    && totalConnections.get() > config.getMinSize();
+            // remove() fails if a borrower took the connection in the meantime.
+            if ((expired || idleTooLong || pooled.isBroken()) && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+        fillToMinimum();
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.getMinSize() && reserveSlot()) {
+            try {
+                idle.offerLast(openConnection());
+            } catch (SQLException e) {
+                if (!lastFillFailed) {
+                    System.err.println("Unable to open pooled database connection: " + e.getMessage());
+                    lastFillFailed = true;
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool{total=%d, active=%d, idle=%d, waiting=%d, max=%d, stmtCacheHitRatio=%.2f}",
+                getTotalConnections(), getActiveConnections(), getIdleConnections(),
+                getWaitingThreads(), config.getMaxSize(), getStatementCacheHitRatio());
+    }
+}
@@ -6,47 +6,59 @@ import java.sql.SQLException;
 import java.util.Properties;
 
 public class DatabaseConnection {
-    private static DatabaseConnection instance;
     private static final String DB_URL = System.getenv("URL");
     private static final String DB_USER = System.getenv("USER");
     private static final String DB_PASSWORD = System.getenv("PASSWORD");
     
+    private final ConnectionPool pool;
+    private final boolean driverLoaded;
+    
     private DatabaseConnection() {
+        this.driverLoaded = loadDriver();
+        PoolConfig config = PoolConfig.fromEnvironment();
+        Properties props = connectionProperties(DB_USER, DB_PASSWORD);
+        props.setProperty("prepareThreshold", String.valueOf(config.getPrepareThreshold()));
+        this.pool = new ConnectionPool(DB_URL, props, config);
     }
     
-    public static synchronized DatabaseConnection getInstance() {
-        if (instance == null) {
-            instance = new DatabaseConnection();
-        }
-        return instance;
+    /**
+     * Lazily created by the class loader, so getInstance() needs no locking.
+     */
+    private static class Holder {
+        private static final DatabaseConnection INSTANCE = new DatabaseConnection();
+    }
+    
+    public static DatabaseConnection getInstance() {
+        return Holder.INSTANCE;
     }
     
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     * @return Pooled database connection
+     * @throws SQLException if the driver is missing or no connection is available
+     */
     public Connection getConnection() throws SQLException {
-        try {
-            Class.forName("org.postgresql.Driver");
-            Properties props = new Properties();
-            props.setProperty("user", DB_USER);
-            props.setProperty("password", DB_PASSWORD);
-            props.setProperty("ssl", "false");
-            props.setProperty("sslmode", "disable");
-            
-            return DriverManager.getConnection(DB_URL, props);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("PostgreSQL JDBC Driver not found", e);
+        if (!driverLoaded) {
+            throw new SQLException("PostgreSQL JDBC Driver not found");
         }
+        return pool.getConnection();
+    }
+    
+    public ConnectionPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Closes all pooled connections. Call once when the application exits.
+     */
+    public void shutdown() {
+        pool.shutdown();
     }
     
     public Connection getConnection(String url, String user, String password) throws SQLException {
         try {
             Class.forName("org.postgresql.Driver");
-            
-            Properties props = new Properties();
-            props.setProperty("user", user);
-            props.setProperty("password", password);
-            props.setProperty("ssl", "false");
-            props.setProperty("sslmode", "disable");
-            
-            return DriverManager.getConnection(url, props);
+            return DriverManager.getConnection(url, connectionProperties(user, password));
         } catch (ClassNotFoundException e) {
             throw new SQLException("PostgreSQL JDBC Driver not found", e);
         }
@@ -70,4 +82,27 @@ public class DatabaseConnection {
             }
         }
     }
-}
+    
+    private static boolean loadDriver() {
+        try {
+            Class.forName("org.postgresql.Driver");
+            return true;
+        } catch (ClassNotFoundException e) {
+            System.err.println("PostgreSQL JDBC Driver not found: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static Properties connectionProperties(String user, String password) {
+        Properties props = new Properties();
+        if (user != null) {
+            props.setProperty("user", user);
+        }
+        if (password != null) {
+            props.setProperty("password", password);
+        }
+        props.setProperty("ssl", "false");
+        props.setProperty("sslmode", "disable");
+        return props;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.university.database;
+
+import com.university.util.Env;
+
+/**
+ * Settings for {@link ConnectionPool}. Defaults can be overridden through
+ * environment variables, the same way the connection URL and credentials are.
+ */
+public class PoolConfig {
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long acquireTimeoutMillis = 30_000;
+    private long idleTimeoutMillis = 10 * 60_000;
+    private long maxLifetimeMillis = 30 * 60_000;
+    private long housekeepingIntervalMillis = 30_000;
+    private int validationTimeoutSeconds = 5;
+    private int statementCacheSize = 64;
+    private int prepareThreshold = 2;
+
+    /**
+     * Builds a configuration from the POOL_* environment variables, falling back
+     * to the defaults for anything that is unset or malformed.
+     * @return Pool configuration
+     */
+    public static PoolConfig fromEnvironment() {
+        PoolConfig config = new PoolConfig();
+        config.setMinSize(Env.getInt("POOL_MIN_SIZE", config.getMinSize()));
+        config.setMaxSize(Env.getInt("POOL_MAX_SIZE", config.getMaxSize()));
+        config.setAcquireTimeoutMillis(Env.getLong("POOL_ACQUIRE_TIMEOUT_MS", config.getAcquireTimeoutMillis()));
+        config.setIdleTimeoutMillis(Env.getLong("POOL_IDLE_TIMEOUT_MS", config.getIdleTimeoutMillis()));
+        config.setMaxLifetimeMillis(Env.getLong("POOL_MAX_LIFETIME_MS", config.getMaxLifetimeMillis()));
+        config.setValidationTimeoutSeconds(Env.getInt("POOL_VALIDATION_TIMEOUT_S", config.getValidationTimeoutSeconds()));
+        config.setStatementCacheSize(Env.getInt("POOL_STATEMENT_CACHE_SIZE", config.getStatementCacheSize()));
+        config.setPrepareThreshold(Env.getInt("POOL_PREPARE_THRESHOLD", config.getPrepareThreshold()));
+        return config;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = Math.max(0, minSize);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public long getHousekeepingIntervalMillis() {
+        return housekeepingIntervalMillis;
+    }
+
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+        this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Number of prepared statements kept open per connection; 0 disables caching.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+    }
+
+    /**
+     * Executions after which the driver switches a statement to a named
+     * server-side prepared statement, so the server skips parse and plan.
+     */
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public void setPrepareThreshold(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolConfig{min=%d, max=%d, acquireTimeout=%dms, idleTimeout=%dms, maxLifetime=%dms, statementCache=%d}",
+                minSize, maxSize, acquireTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis, statementCacheSize);
+    }
+}
@@ -0,0 +1,306 @@
+package com.university.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A physical connection owned by {@link ConnectionPool}. Callers never see this
+ * class directly; each borrow hands out a fresh proxy whose close() returns the
+ * physical connection to the pool instead of closing it.
+ */
+class PooledConnection {
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final long createdAt;
+    private volatile long lastUsedAt;
+    private volatile boolean broken;
+    private final int statementCacheSize;
+    private final StatementCache statementCache;
+
+    PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize) {
+        this.pool = pool;
+        this.physical = physical;
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = createdAt;
+        this.statementCacheSize = statementCacheSize;
+        this.statementCache = statementCacheSize > 0 ? new StatementCache() : null;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    void touch() {
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    boolean isExpired(long now, long maxLifetimeMillis) {
+        return maxLifetimeMillis > 0 && now - createdAt >= maxLifetimeMillis;
+    }
+
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return !physical.isClosed() && physical.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Restores the session defaults so the next borrower does not inherit an
+     * open transaction or a read-only flag.
+     * @return true if the connection can be reused
+     */
+    boolean reset() {
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            broken = true;
+            return false;
+        }
+    }
+
+    /**
+     * Prepares a statement, reusing an open one for the same SQL when possible.
+     * A connection is only ever used by one thread at a time, so the cache
+     * needs no locking.
+     */
+    private PreparedStatement prepareCached(String sql) throws SQLException {
+        if (statementCache == null) {
+            return physical.prepareStatement(sql);
+        }
+
+        CachedStatement cached = statementCache.get(sql);
+        if (cached != null && !cached.inUse) {
+            pool.recordStatementCacheHit();
+            return cached.checkout();
+        }
+
+        pool.recordStatementCacheMiss();
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (cached != null) {
+            // The same SQL is already checked out (e.g. nested use); hand out a plain statement.
+            return statement;
+        }
+        cached = new CachedStatement(statement);
+        statementCache.put(sql, cached);
+        return cached.checkout();
+    }
+
+    void closePhysical() {
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    Connection borrow() {
+        touch();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new Handle());
+    }
+
+    private void markBrokenIfFatal(Throwable error) {
+        if (error instanceof SQLException) {
+            String sqlState = ((SQLException) error).getSQLState();
+            // Class 08 is "connection exception"; the session is unusable after it.
+            if (sqlState != null && sqlState.startsWith("08")) {
+                broken = true;
+            }
+        }
+    }
+
+    /**
+     * The caller-facing connection. Stays tied to a single borrow so that a
+     * stale reference cannot touch the connection after it has been returned.
+     */
+    private class Handle implements InvocationHandler {
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + (closed ? ", closed" : "") + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool", "08003");
+            }
+
+            if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+                try {
+                    return prepareCached((String) args[0]);
+                } catch (SQLException e) {
+                    markBrokenIfFatal(e);
+                    throw e;
+                }
+            }
+
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                markBrokenIfFatal(e.getCause());
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * LRU map of open statements keyed by SQL text.
+     */
+    private class StatementCache extends LinkedHashMap<String, CachedStatement> {
+        private static final long serialVersionUID = 1L;
+
+        StatementCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+            if (size() <= statementCacheSize) {
+                return false;
+            }
+            eldest.getValue().evict();
+            return true;
+        }
+    }
+
+    /**
+     * A physical prepared statement that outlives the logical statements
+     * handed to callers. Closing a logical statement resets the physical one
+     * for the next caller instead of closing it.
+     */
+    private class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement checkout() {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new StatementHandle());
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void checkin(ResultSet openResultSet) {
+            inUse = false;
+            try {
+                if (openResultSet != null) {
+                    openResultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                // Back to the JDBC defaults so settings do not leak to the next caller
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+                statement.setQueryTimeout(0);
+            } catch (SQLException e) {
+                evicted = true;
+                statementCache.values().remove(this);
+            }
+            if (evicted) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+
+        private class StatementHandle implements InvocationHandler {
+            private boolean closed;
+            private ResultSet lastResultSet;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            checkin(lastResultSet);
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + statement + (closed ? ", closed" : "") + "]";
+                    default:
+                        break;
+                }
+
+                if (closed) {
+                    throw new SQLException("Statement has already been closed");
+                }
+
+                try {
+                    Object result = method.invoke(statement, args);
+                    if (result instanceof ResultSet) {
+                        lastResultSet = (ResultSet) result;
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    markBrokenIfFatal(e.getCause());
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
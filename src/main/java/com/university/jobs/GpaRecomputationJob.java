@@ -0,0 +1,173 @@
+package com.university.jobs;
+
+import com.university.dao.GpaDAO;
+import com.university.database.DatabaseConnection;
+import com.university.util.Env;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Brings students.gpa back in line with the graded enrollments. The stored
+ * value is otherwise only written when a student is saved, so it drifts as
+ * grades are entered.
+ *
+ * The student id space is split into ranges that are recomputed on a worker
+ * pool, each worker holding one connection; only changed GPAs are written.
+ * After the first complete run, later runs only look at students touched
+ * since the previous one; pass --full to recompute everyone. The watermark
+ * only advances when a run completes without errors, so a failed run is
+ * covered again by the next one.
+ *
+ * The job runs in its own process, so it cannot evict the student caches
+ * of the processes serving requests; they pick up new GPAs once their
+ * cached entries expire (STUDENT_CACHE_TTL_MS).
+ *
+ * Configured with GPA_JOB_PARALLELISM (default 4, kept below the pool size)
+ * and GPA_JOB_BATCH_SIZE (default 500).
+ */
+public class GpaRecomputationJob {
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final GpaDAO gpaDAO;
+    private final int parallelism;
+
+    public GpaRecomputationJob(GpaDAO gpaDAO, int parallelism) {
+        this.gpaDAO = gpaDAO;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public static void main(String[] args) {
+        GpaDAO gpaDAO = new GpaDAO();
+        gpaDAO.setBatchSize(Env.getInt("GPA_JOB_BATCH_SIZE", 500));
+        GpaRecomputationJob job = new GpaRecomputationJob(gpaDAO, Env.getInt("GPA_JOB_PARALLELISM", 4));
+        boolean full = args.length > 0 && "--full".equals(args[0]);
+        Result result = job.run(full);
+        System.out.println(result);
+        DatabaseConnection.getInstance().shutdown();
+        if (!result.isSuccessful()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param full Recompute every student instead of those touched since the last run
+     */
+    public Result run(boolean full) {
+        long start = System.nanoTime();
+        Result result = new Result();
+
+        try {
+            Instant windowEnd = gpaDAO.getWindowEnd();
+            if (windowEnd == null) {
+                result.failed = true;
+                return result;
+            }
+            Instant since = full ? null : gpaDAO.getWatermark();
+            result.incremental = since != null;
+            if (since != null && !windowEnd.isAfter(since)) {
+                // Ran again within the settle time; nothing new to look at yet
+                return result;
+            }
+
+            int poolSize = DatabaseConnection.getInstance().getPool().getConfig().getMaxSize();
+            int workers = Math.max(1, Math.min(parallelism, poolSize - 1));
+            List<String> starts = gpaDAO.getRangeStarts(workers * RANGES_PER_WORKER);
+            if (starts == null) {
+                result.failed = true;
+                return result;
+            }
+
+            recompute(starts, since, windowEnd, workers, result);
+
+            if (!result.failed && result.failedUpdates == 0 && !gpaDAO.saveWatermark(windowEnd)) {
+                result.failed = true;
+            }
+        } finally {
+            result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        return result;
+    }
+
+    private void recompute(List<String> starts, Instant since, Instant until, int workers, Result result) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "gpa-recompute-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<GpaDAO.RangeResult>> ranges = new ArrayList<>(starts.size());
+            for (int i = 0; i < starts.size(); i++) {
+                String fromId = starts.get(i);
+                String toId = i + 1 < starts.size() ? starts.get(i + 1) : null;
+                ranges.add(executor.submit(() -> gpaDAO.recomputeRange(fromId, toId, since, until)));
+            }
+            for (Future<GpaDAO.RangeResult> range : ranges) {
+                GpaDAO.RangeResult rangeResult = range.get();
+                result.scanned += rangeResult.getScanned();
+                result.updated += rangeResult.getUpdated();
+                result.failedUpdates += rangeResult.getFailedUpdates();
+                if (rangeResult.isFailed()) {
+                    result.failed = true;
+                }
+            }
+
+        } catch (ExecutionException e) {
+            System.err.println("Error recomputing GPAs: " + e.getCause());
+            result.failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.failed = true;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * What one run of the job did.
+     */
+    public static class Result {
+        private boolean incremental;
+        private long scanned;
+        private long updated;
+        private long failedUpdates;
+        private boolean failed;
+        private long elapsedMillis;
+
+        /**
+         * @return true if only students touched since the previous run were looked at
+         */
+        public boolean isIncremental() { return incremental; }
+
+        public long getScanned() { return scanned; }
+
+        public long getUpdated() { return updated; }
+
+        public long getFailedUpdates() { return failedUpdates; }
+
+        public boolean isSuccessful() { return !failed && failedUpdates == 0; }
+
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * @return Students recomputed per second
+         */
+        public double getThroughput() {
+            return elapsedMillis > 0 ? scanned * 1000.0 / elapsedMillis : scanned;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("GpaRecomputation{%s, scanned=%d, updated=%d, failedUpdates=%d, %s, %d ms, %.0f students/s}",
+                    incremental ? "incremental" : "full", scanned, updated, failedUpdates,
+                    isSuccessful() ? "ok" : "with errors", elapsedMillis, getThroughput());
+        }
+    }
+}
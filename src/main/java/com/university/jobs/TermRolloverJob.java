@@ -0,0 +1,90 @@
+package com.university.jobs;
+
+import com.university.dao.TermDAO;
+import com.university.database.DatabaseConnection;
+import com.university.model.Term;
+import com.university.util.Env;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the enrollments partitions in line with the terms table: creates
+ * missing partitions for live terms, and archives terms that ended before
+ * the most recent retainedTerms ended terms. Archiving detaches the term's
+ * partition, so queries on enrollments only ever see the terms still in use.
+ *
+ * Safe to run repeatedly; run it after each term ends. Configured with
+ * TERM_RETAINED_TERMS (default 6, two years of spring/summer/fall).
+ *
+ * The job runs in its own process, so it cannot reach the enrollment index
+ * of the processes serving requests. Those keep answering lookups for
+ * archived enrollments until they call EnrollmentDAO.reloadEnrollmentIndex(),
+ * which they should do after a rollover that archived terms.
+ */
+public class TermRolloverJob {
+    private final TermDAO termDAO;
+    private final int retainedTerms;
+
+    public TermRolloverJob(TermDAO termDAO, int retainedTerms) {
+        this.termDAO = termDAO;
+        this.retainedTerms = Math.max(0, retainedTerms);
+    }
+
+    public static void main(String[] args) {
+        TermRolloverJob job = new TermRolloverJob(new TermDAO(), Env.getInt("TERM_RETAINED_TERMS", 6));
+        Result result = job.run();
+        System.out.println(result);
+        DatabaseConnection.getInstance().shutdown();
+        if (!result.isSuccessful()) {
+            System.exit(1);
+        }
+    }
+
+    public Result run() {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+
+        List<Integer> created = termDAO.createMissingPartitions();
+        if (created == null) {
+            result.failed = true;
+        } else {
+            result.partitionsCreated.addAll(created);
+        }
+
+        for (Term term : termDAO.getArchivableTerms(retainedTerms)) {
+            if (termDAO.archiveTerm(term.getTermId())) {
+                result.termsArchived.add(term.getTermId());
+            } else {
+                result.failed = true;
+            }
+        }
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    /**
+     * What one run of the job did.
+     */
+    public static class Result {
+        private final List<Integer> partitionsCreated = new ArrayList<>();
+        private final List<Integer> termsArchived = new ArrayList<>();
+        private boolean failed;
+        private long elapsedMillis;
+
+        public List<Integer> getPartitionsCreated() { return Collections.unmodifiableList(partitionsCreated); }
+
+        public List<Integer> getTermsArchived() { return Collections.unmodifiableList(termsArchived); }
+
+        public boolean isSuccessful() { return !failed; }
+
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("TermRollover{created=%s, archived=%s, %s, %d ms}",
+                    partitionsCreated, termsArchived, failed ? "with errors" : "ok", elapsedMillis);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.university.model;
 
+import com.university.util.ObjectDoubleMap;
+
 import java.util.*;
 
 public class Course {
@@ -8,11 +10,15 @@ public class Course {
     private String description;
     private int credits;
     private String department;
-    private Instructor instructor;
-    private Set<Student> enrolledStudents;
-    private Map<Student, Double> studentGrades;
+    private volatile Instructor instructor;
+    // Allocated on first use; most courses are loaded without students. In
+    // concurrent mode both are copy-on-write (see ModelLocks).
+    private volatile Set<Student> enrolledStudents;
+    private volatile GradeBook gradeBook;
     private String schedule;
     private String location;
+    private Integer capacity;
+    private Integer termId;
     
     public Course(String courseId, String courseName, String description, 
                   int credits, String department, String schedule, String location) {
@@ -23,8 +29,6 @@ public class Course {
         this.department = department;
         this.schedule = schedule;
         this.location = location;
-        this.enrolledStudents = new HashSet<>();
-        this.studentGrades = new HashMap<>();
     }
     
     public String getCourseId() {
@@ -75,12 +79,20 @@ public class Course {
         this.instructor = instructor;
     }
     
+    /**
+     * @return Read-only view of the enrolled students
+     */
     public Set<Student> getEnrolledStudents() {
-        return new HashSet<>(enrolledStudents);
+        Set<Student> students = enrolledStudents;
+        return students != null ? Collections.unmodifiableSet(students) : Collections.emptySet();
     }
     
+    /**
+     * @return A copy of the grades by student
+     */
     public Map<Student, Double> getStudentGrades() {
-        return new HashMap<>(studentGrades);
+        GradeBook book = gradeBook;
+        return book != null ? book.grades.toMap() : new HashMap<>();
     }
     
     public String getSchedule() {
@@ -99,49 +111,150 @@ public class Course {
         this.location = location;
     }
     
+    /**
+     * @return Maximum number of active enrollments, or null if unlimited
+     */
+    public Integer getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+    
+    public boolean hasCapacityLimit() {
+        return capacity != null;
+    }
+    
+    /**
+     * @return Term the course is offered in (see Term), or null if not yet saved
+     */
+    public Integer getTermId() {
+        return termId;
+    }
+    
+    /**
+     * Sets the term for a new course; null means the current term. The term
+     * of an existing course does not change on update.
+     */
+    public void setTermId(Integer termId) {
+        this.termId = termId;
+    }
+    
     public void addStudent(Student student) {
-        enrolledStudents.add(student);
+        ModelLocks.update(this, null, () -> {
+            if (!isStudentEnrolled(student)) {
+                Set<Student> students = studentsForWrite();
+                students.add(student);
+                enrolledStudents = students;
+            }
+        });
     }
     
     public void removeStudent(Student student) {
-        enrolledStudents.remove(student);
-        studentGrades.remove(student);
+        ModelLocks.update(this, null, () -> {
+            if (isStudentEnrolled(student)) {
+                Set<Student> students = studentsForWrite();
+                students.remove(student);
+                enrolledStudents = students;
+                GradeBook book = gradeBook;
+                if (book != null && book.grades.containsKey(student)) {
+                    book = gradeBookForWrite();
+                    book.remove(student);
+                    publish(book);
+                }
+            }
+        });
     }
     
     public void addGrade(Student student, double grade) {
-        if (enrolledStudents.contains(student)) {
-            studentGrades.put(student, grade);
+        ModelLocks.update(this, null, () -> {
+            if (isStudentEnrolled(student)) {
+                GradeBook book = gradeBookForWrite();
+                book.put(student, grade);
+                publish(book);
+            }
+        });
+    }
+    
+    private Set<Student> studentsForWrite() {
+        Set<Student> students = enrolledStudents;
+        if (students == null) {
+            return new HashSet<>();
+        }
+        return ModelLocks.CONCURRENT ? new HashSet<>(students) : students;
+    }
+    
+    private GradeBook gradeBookForWrite() {
+        GradeBook book = gradeBook;
+        if (book == null) {
+            return new GradeBook();
         }
+        return ModelLocks.CONCURRENT ? new GradeBook(book) : book;
+    }
+    
+    private void publish(GradeBook book) {
+        if (ModelLocks.CONCURRENT) {
+            // Published copies are never stale, so readers never write to them
+            book.refreshExtremes();
+        }
+        gradeBook = book;
     }
     
     public double getStudentGrade(Student student) {
-        return studentGrades.getOrDefault(student, 0.0);
+        GradeBook book = gradeBook;
+        return book != null ? book.grades.getOrDefault(student, 0.0) : 0.0;
     }
     
     public int getEnrollmentCount() {
-        return enrolledStudents.size();
+        Set<Student> students = enrolledStudents;
+        return students != null ? students.size() : 0;
     }
     
     public boolean isStudentEnrolled(Student student) {
-        return enrolledStudents.contains(student);
+        Set<Student> students = enrolledStudents;
+        return students != null && students.contains(student);
+    }
+    
+    public int getGradedCount() {
+        GradeBook book = gradeBook;
+        return book != null ? book.grades.size() : 0;
     }
     
     public double getAverageGrade() {
-        if (studentGrades.isEmpty()) {
+        GradeBook book = gradeBook;
+        return book != null && !book.grades.isEmpty() ? book.sum / book.grades.size() : 0.0;
+    }
+    
+    /**
+     * @return Lowest grade, or 0.0 if no student is graded
+     */
+    public double getMinGrade() {
+        GradeBook book = gradeBook;
+        if (book == null || book.grades.isEmpty()) {
             return 0.0;
         }
-        
-        return studentGrades.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
+        book.refreshExtremes();
+        return book.min;
+    }
+    
+    /**
+     * @return Highest grade, or 0.0 if no student is graded
+     */
+    public double getMaxGrade() {
+        GradeBook book = gradeBook;
+        if (book == null || book.grades.isEmpty()) {
+            return 0.0;
+        }
+        book.refreshExtremes();
+        return book.max;
     }
     
     @Override
     public String toString() {
         return String.format("Course{id='%s', name='%s', credits=%d, department='%s', instructor='%s', enrollment=%d}", 
                 courseId, courseName, credits, department, 
-                instructor != null ? instructor.getFullName() : "TBA", enrolledStudents.size());
+                instructor != null ? instructor.getFullName() : "TBA", getEnrollmentCount());
     }
     
     @Override
@@ -156,4 +269,73 @@ public class Course {
     public int hashCode() {
         return courseId != null ? courseId.hashCode() : 0;
     }
+    
+    /**
+     * Grades by student with running statistics, so the average is O(1).
+     * min and max are NaN when stale and rescanned on the next read.
+     */
+    private static final class GradeBook {
+        private final ObjectDoubleMap<Student> grades;
+        private double sum;
+        private double min = Double.NaN;
+        private double max = Double.NaN;
+        
+        GradeBook() {
+            this.grades = new ObjectDoubleMap<>();
+        }
+        
+        GradeBook(GradeBook source) {
+            this.grades = new ObjectDoubleMap<>(source.grades);
+            this.sum = source.sum;
+            this.min = source.min;
+            this.max = source.max;
+        }
+        
+        void put(Student student, double grade) {
+            double previous = grades.put(student, grade);
+            if (!Double.isNaN(previous)) {
+                takeOut(previous);
+            }
+            sum += grade;
+            if (!Double.isNaN(min)) {
+                min = Math.min(min, grade);
+                max = Math.max(max, grade);
+            } else if (grades.size() == 1) {
+                min = grade;
+                max = grade;
+            }
+        }
+        
+        void remove(Student student) {
+            double grade = grades.remove(student);
+            if (!Double.isNaN(grade)) {
+                takeOut(grade);
+            }
+        }
+        
+        private void takeOut(double grade) {
+            if (grades.isEmpty()) {
+                sum = 0.0;
+                min = Double.NaN;
+                max = Double.NaN;
+                return;
+            }
+            sum -= grade;
+            if (grade == min || grade == max) {
+                // The extreme may have left
+                min = Double.NaN;
+                max = Double.NaN;
+            }
+        }
+        
+        void refreshExtremes() {
+            if (!Double.isNaN(min) || grades.isEmpty()) {
+                return;
+            }
+            DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+            grades.forEachValue(stats);
+            min = stats.getMin();
+            max = stats.getMax();
+        }
+    }
 }
@@ -1,7 +1,5 @@
 package com.university.model;
 
-import java.util.Map;
-
 public class GraduateStudent extends Student {
     private String thesisTitle;
     private String supervisor;
@@ -37,28 +35,7 @@ public class GraduateStudent extends Student {
     }
     
     @Override
-    public void calculateGPA() {
-        if (getCourseGrades().isEmpty()) {
-            setGpa(0.0);
-            return;
-        }
-        
-        double totalPoints = 0.0;
-        int totalCredits = 0;
-        
-        for (Map.Entry<Course, Double> entry : getCourseGrades().entrySet()) {
-            Course course = entry.getKey();
-            Double grade = entry.getValue();
-            
-            double gradePoints = convertToGradePoints(grade);
-            totalPoints += gradePoints * course.getCredits();
-            totalCredits += course.getCredits();
-        }
-        
-        setGpa(totalCredits > 0 ? totalPoints / totalCredits : 0.0);
-    }
-    
-    private double convertToGradePoints(double grade) {
+    public double convertToGradePoints(double grade) {
         if (grade >= 90) return 4.0;
         if (grade >= 80) return 3.0;
         if (grade >= 70) return 2.0;
@@ -7,8 +7,10 @@ public class Instructor extends Person {
     private String department;
     private String title;
     private double salary;
-    private Set<Course> assignedCourses;
-    private List<String> specializations;
+    // Allocated on first use; most instructors are loaded without courses. In
+    // concurrent mode both are copy-on-write (see ModelLocks).
+    private volatile Set<Course> assignedCourses;
+    private volatile List<String> specializations;
     private int yearsOfExperience;
     
     public Instructor(String id, String firstName, String lastName, String email, 
@@ -20,8 +22,6 @@ public class Instructor extends Person {
         this.title = title;
         this.salary = salary;
         this.yearsOfExperience = yearsOfExperience;
-        this.assignedCourses = new HashSet<>();
-        this.specializations = new ArrayList<>();
     }
     
     public String getEmployeeId() {
@@ -56,12 +56,20 @@ public class Instructor extends Person {
         this.salary = salary;
     }
     
+    /**
+     * @return Read-only view of the assigned courses
+     */
     public Set<Course> getAssignedCourses() {
-        return new HashSet<>(assignedCourses);
+        Set<Course> courses = assignedCourses;
+        return courses != null ? Collections.unmodifiableSet(courses) : Collections.emptySet();
     }
     
+    /**
+     * @return Read-only view of the specializations
+     */
     public List<String> getSpecializations() {
-        return new ArrayList<>(specializations);
+        List<String> current = specializations;
+        return current != null ? Collections.unmodifiableList(current) : Collections.emptyList();
     }
     
     public int getYearsOfExperience() {
@@ -73,43 +81,90 @@ public class Instructor extends Person {
     }
     
     public void assignToCourse(Course course) {
-        assignedCourses.add(course);
-        course.setInstructor(this);
+        ModelLocks.update(course, this, () -> {
+            Set<Course> courses = coursesForWrite();
+            courses.add(course);
+            assignedCourses = courses;
+            course.setInstructor(this);
+        });
     }
     
     public void removeFromCourse(Course course) {
-        assignedCourses.remove(course);
-        if (course.getInstructor() == this) {
-            course.setInstructor(null);
-        }
+        ModelLocks.update(course, this, () -> {
+            if (assignedCourses != null && assignedCourses.contains(course)) {
+                Set<Course> courses = coursesForWrite();
+                courses.remove(course);
+                assignedCourses = courses;
+            }
+            if (course.getInstructor() == this) {
+                course.setInstructor(null);
+            }
+        });
     }
     
     public void addSpecialization(String specialization) {
-        if (!specializations.contains(specialization)) {
-            specializations.add(specialization);
-        }
+        ModelLocks.update(null, this, () -> {
+            if (specializations == null || !specializations.contains(specialization)) {
+                List<String> updated = specializationsForWrite();
+                updated.add(specialization);
+                specializations = updated;
+            }
+        });
     }
     
     public void removeSpecialization(String specialization) {
-        specializations.remove(specialization);
+        ModelLocks.update(null, this, () -> {
+            if (specializations != null && specializations.contains(specialization)) {
+                List<String> updated = specializationsForWrite();
+                updated.remove(specialization);
+                specializations = updated;
+            }
+        });
+    }
+    
+    private Set<Course> coursesForWrite() {
+        Set<Course> courses = assignedCourses;
+        if (courses == null) {
+            return new HashSet<>();
+        }
+        return ModelLocks.CONCURRENT ? new HashSet<>(courses) : courses;
+    }
+    
+    private List<String> specializationsForWrite() {
+        List<String> current = specializations;
+        if (current == null) {
+            return new ArrayList<>();
+        }
+        return ModelLocks.CONCURRENT ? new ArrayList<>(current) : current;
     }
     
     public int getTotalStudents() {
-        return assignedCourses.stream()
-                .mapToInt(Course::getEnrollmentCount)
-                .sum();
+        Set<Course> courses = assignedCourses;
+        if (courses == null) {
+            return 0;
+        }
+        int students = 0;
+        for (Course course : courses) {
+            students += course.getEnrollmentCount();
+        }
+        return students;
     }
     
     public double getAverageCourseGrade(Course course) {
-        if (assignedCourses.contains(course)) {
+        Set<Course> courses = assignedCourses;
+        if (courses != null && courses.contains(course)) {
             return course.getAverageGrade();
         }
         return 0.0;
     }
     
     public boolean canTeachCourse(String subject) {
-        return specializations.contains(subject) || 
-               specializations.stream().anyMatch(spec -> spec.toLowerCase().contains(subject.toLowerCase()));
+        List<String> current = specializations;
+        if (current == null) {
+            return false;
+        }
+        return current.contains(subject) || 
+               current.stream().anyMatch(spec -> spec.toLowerCase().contains(subject.toLowerCase()));
     }
     
     @Override
@@ -120,6 +175,6 @@ public class Instructor extends Person {
     @Override
     public String toString() {
         return String.format("Instructor{id='%s', employeeId='%s', name='%s %s', title='%s', department='%s', courses=%d}", 
-                id, employeeId, getFullName(), title, department, assignedCourses.size());
+                id, employeeId, getFullName(), title, department, getAssignedCourses().size());
     }
 }
@@ -0,0 +1,83 @@
+package com.university.model;
+
+import com.university.util.Env;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Switches the model between single-threaded and concurrent mode, and holds
+ * the locks used in concurrent mode.
+ *
+ * By default model objects are plain single-threaded objects. With
+ * MODEL_CONCURRENT=true they can be shared between threads:
+ * <ul>
+ *   <li>Collections and grade maps are copy-on-write. Writers publish a new
+ *       copy, so readers never lock and always see a consistent snapshot.</li>
+ *   <li>A change that touches a course takes that course's lock, one of
+ *       MODEL_LOCK_STRIPES (default 64) striped by course id. It then takes
+ *       the student's monitor. Enrolling, dropping and grading therefore
+ *       update both sides atomically.</li>
+ *   <li>Locks are always taken course stripe first, student second, and
+ *       never for two courses at once, so they cannot deadlock.</li>
+ * </ul>
+ *
+ * The mode is fixed at startup.
+ */
+final class ModelLocks {
+    static final boolean CONCURRENT = Env.getBoolean("MODEL_CONCURRENT", false);
+
+    private static final ReentrantLock[] STRIPES = createStripes(Env.getInt("MODEL_LOCK_STRIPES", 64));
+
+    private ModelLocks() {
+    }
+
+    /**
+     * Runs a change to model state. In concurrent mode the change runs under
+     * the course's stripe lock, if a course is given, and then the monitor,
+     * if one is given. Otherwise it simply runs.
+     */
+    static void update(Course course, Object monitor, Runnable change) {
+        if (!CONCURRENT) {
+            change.run();
+            return;
+        }
+        ReentrantLock lock = course != null ? forCourse(course) : null;
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            if (monitor != null) {
+                synchronized (monitor) {
+                    change.run();
+                }
+            } else {
+                change.run();
+            }
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return The lock guarding the course's students and grades
+     */
+    static ReentrantLock forCourse(Course course) {
+        String courseId = course.getCourseId();
+        int h = (courseId != null ? courseId.hashCode() : 0) * 0x9E3779B9;
+        return STRIPES[(h ^ (h >>> 16)) & (STRIPES.length - 1)];
+    }
+
+    private static ReentrantLock[] createStripes(int requested) {
+        int count = 1;
+        while (count < requested && count < (1 << 16)) {
+            count <<= 1;
+        }
+        ReentrantLock[] stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
@@ -1,14 +1,21 @@
 package com.university.model;
 
+import com.university.util.ObjectDoubleMap;
+
 import java.util.*;
 
 public class Student extends Person {
     private String studentId;
     private String major;
     private int yearLevel;
-    private double gpa;
-    private List<Course> enrolledCourses;
-    private Map<Course, Double> courseGrades;
+    private volatile double gpa;
+    // Allocated on first use; most students are loaded without courses. In
+    // concurrent mode both are copy-on-write (see ModelLocks).
+    private volatile Set<Course> enrolledCourses;
+    private volatile ObjectDoubleMap<Course> courseGrades;
+    // Running sums over courseGrades so GPA updates are O(1); written under the student's lock
+    private double totalGradePoints;
+    private int totalGradedCredits;
     
     public Student(String id, String firstName, String lastName, String email, 
                    String phoneNumber, String studentId, String major, int yearLevel) {
@@ -17,8 +24,6 @@ public class Student extends Person {
         this.major = major;
         this.yearLevel = yearLevel;
         this.gpa = 0.0;
-        this.enrolledCourses = new ArrayList<>();
-        this.courseGrades = new HashMap<>();
     }
     
     public String getStudentId() {
@@ -53,63 +58,154 @@ public class Student extends Person {
         this.gpa = gpa;
     }
     
-    public List<Course> getEnrolledCourses() {
-        return new ArrayList<>(enrolledCourses);
+    /**
+     * @return Read-only view of the enrolled courses, in enrollment order
+     */
+    public Set<Course> getEnrolledCourses() {
+        Set<Course> courses = enrolledCourses;
+        return courses != null ? Collections.unmodifiableSet(courses) : Collections.emptySet();
     }
     
+    /**
+     * @return A copy of the grades by course
+     */
     public Map<Course, Double> getCourseGrades() {
-        return new HashMap<>(courseGrades);
+        ObjectDoubleMap<Course> grades = courseGrades;
+        return grades != null ? grades.toMap() : new HashMap<>();
+    }
+    
+    /**
+     * @return The grade for the course, or NaN if it has none
+     */
+    public double getCourseGrade(Course course) {
+        ObjectDoubleMap<Course> grades = courseGrades;
+        return grades != null ? grades.get(course) : Double.NaN;
     }
     
     public void enrollInCourse(Course course) {
-        if (!enrolledCourses.contains(course)) {
-            enrolledCourses.add(course);
-            course.addStudent(this);
-        }
+        ModelLocks.update(course, this, () -> {
+            if (!isEnrolledInCourse(course)) {
+                Set<Course> courses = coursesForWrite();
+                courses.add(course);
+                enrolledCourses = courses;
+                course.addStudent(this);
+            }
+        });
     }
     
     public void dropCourse(Course course) {
-        if (enrolledCourses.contains(course)) {
-            enrolledCourses.remove(course);
-            course.removeStudent(this);
-            courseGrades.remove(course);
+        ModelLocks.update(course, this, () -> {
+            if (isEnrolledInCourse(course)) {
+                Set<Course> courses = coursesForWrite();
+                courses.remove(course);
+                enrolledCourses = courses;
+                course.removeStudent(this);
+                if (!Double.isNaN(getCourseGrade(course))) {
+                    ObjectDoubleMap<Course> grades = gradesForWrite();
+                    double grade = grades.remove(course);
+                    courseGrades = grades;
+                    removeGradePoints(course, grade);
+                    updateGpa();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Records the grade on both the student and the course.
+     */
+    public void addGrade(Course course, double grade) {
+        ModelLocks.update(course, this, () -> {
+            if (isEnrolledInCourse(course)) {
+                ObjectDoubleMap<Course> grades = gradesForWrite();
+                double previous = grades.put(course, grade);
+                courseGrades = grades;
+                if (!Double.isNaN(previous)) {
+                    removeGradePoints(course, previous);
+                }
+                totalGradePoints += convertToGradePoints(grade) * course.getCredits();
+                totalGradedCredits += course.getCredits();
+                updateGpa();
+                course.addGrade(this, grade);
+            }
+        });
+    }
+    
+    /**
+     * Recomputes GPA from all grades. addGrade and dropCourse keep it current;
+     * call this after changing the credits of a course that is already graded.
+     */
+    public void calculateGPA() {
+        ModelLocks.update(null, this, () -> {
+            totalGradePoints = 0.0;
+            totalGradedCredits = 0;
+            
+            ObjectDoubleMap<Course> grades = courseGrades;
+            if (grades != null) {
+                grades.forEach((course, grade) -> {
+                    totalGradePoints += convertToGradePoints(grade) * course.getCredits();
+                    totalGradedCredits += course.getCredits();
+                });
+            }
+            
+            updateGpa();
+        });
+    }
+    
+    private Set<Course> coursesForWrite() {
+        Set<Course> courses = enrolledCourses;
+        if (courses == null) {
+            return new LinkedHashSet<>();
         }
+        return ModelLocks.CONCURRENT ? new LinkedHashSet<>(courses) : courses;
     }
     
-    public void addGrade(Course course, double grade) {
-        if (enrolledCourses.contains(course)) {
-            courseGrades.put(course, grade);
-            calculateGPA();
+    private ObjectDoubleMap<Course> gradesForWrite() {
+        ObjectDoubleMap<Course> grades = courseGrades;
+        if (grades == null) {
+            return new ObjectDoubleMap<>();
         }
+        return ModelLocks.CONCURRENT ? new ObjectDoubleMap<>(grades) : grades;
     }
     
-    public void calculateGPA() {
+    private void removeGradePoints(Course course, double grade) {
         if (courseGrades.isEmpty()) {
-            this.gpa = 0.0;
+            // Start over from exact zeros instead of accumulated rounding error
+            totalGradePoints = 0.0;
+            totalGradedCredits = 0;
             return;
         }
-        
-        double totalPoints = 0.0;
-        int totalCredits = 0;
-        
-        for (Map.Entry<Course, Double> entry : courseGrades.entrySet()) {
-            Course course = entry.getKey();
-            Double grade = entry.getValue();
-            totalPoints += grade * course.getCredits();
-            totalCredits += course.getCredits();
-        }
-        
-        this.gpa = totalCredits > 0 ? totalPoints / totalCredits : 0.0;
+        totalGradePoints -= convertToGradePoints(grade) * course.getCredits();
+        totalGradedCredits -= course.getCredits();
+    }
+    
+    private void updateGpa() {
+        this.gpa = totalGradedCredits > 0 ? totalGradePoints / totalGradedCredits : 0.0;
+    }
+    
+    /**
+     * Maps a course grade to the points GPA is averaged over. Plain students
+     * average the grades themselves; subclasses use a grade-point scale.
+     */
+    public double convertToGradePoints(double grade) {
+        return grade;
     }
     
     public boolean isEnrolledInCourse(Course course) {
-        return enrolledCourses.contains(course);
+        Set<Course> courses = enrolledCourses;
+        return courses != null && courses.contains(course);
     }
     
     public int getTotalEnrolledCredits() {
-        return enrolledCourses.stream()
-                .mapToInt(Course::getCredits)
-                .sum();
+        Set<Course> courses = enrolledCourses;
+        if (courses == null) {
+            return 0;
+        }
+        int credits = 0;
+        for (Course course : courses) {
+            credits += course.getCredits();
+        }
+        return credits;
     }
     
     @Override
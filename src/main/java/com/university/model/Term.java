@@ -0,0 +1,110 @@
+package com.university.model;
+
+import java.time.LocalDate;
+
+/**
+ * An academic term. The id encodes year and season as YYYYS, so ids sort
+ * in calendar order: 20261 is Spring 2026, 20262 Summer 2026, 20263 Fall 2026.
+ */
+public class Term {
+    public static final int SPRING = 1;
+    public static final int SUMMER = 2;
+    public static final int FALL = 3;
+
+    private int termId;
+    private String name;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private boolean archived;
+
+    public Term(int termId, String name, LocalDate startDate, LocalDate endDate) {
+        this.termId = termId;
+        this.name = name;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * @param season SPRING, SUMMER or FALL
+     * @return Term ID for the year and season
+     */
+    public static int termId(int year, int season) {
+        if (season < SPRING || season > FALL) {
+            throw new IllegalArgumentException("Unknown season " + season);
+        }
+        return year * 10 + season;
+    }
+
+    public int getTermId() {
+        return termId;
+    }
+
+    public void setTermId(int termId) {
+        this.termId = termId;
+    }
+
+    public int getYear() {
+        return termId / 10;
+    }
+
+    public int getSeason() {
+        return termId % 10;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    /**
+     * @return true once the term's enrollments have been moved out of the live table
+     */
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+
+    public boolean contains(LocalDate date) {
+        return !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Term{id=%d, name='%s', %s to %s%s}",
+                termId, name, startDate, endDate, archived ? ", archived" : "");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return termId == ((Term) obj).termId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(termId);
+    }
+}
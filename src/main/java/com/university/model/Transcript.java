@@ -0,0 +1,112 @@
+package com.university.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A student's graded courses across all terms, with GPA computed the same
+ * way as the student's calculateGPA(): grade points from the student's own
+ * scale, weighted by credits.
+ */
+public class Transcript {
+    private final Student student;
+    private final List<Entry> entries = new ArrayList<>();
+    private double totalPoints;
+    private int totalCredits;
+
+    public Transcript(Student student) {
+        this.student = student;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    /**
+     * Adds a graded course; entries are expected in term order.
+     */
+    public void addEntry(int termId, String courseId, String courseName, int credits, double grade) {
+        double gradePoints = student.convertToGradePoints(grade);
+        entries.add(new Entry(termId, courseId, courseName, credits, grade, gradePoints));
+        totalPoints += gradePoints * credits;
+        totalCredits += credits;
+    }
+
+    /**
+     * @return Graded courses in term order (read-only)
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    public double getGpa() {
+        return totalCredits > 0 ? totalPoints / totalCredits : 0.0;
+    }
+
+    /**
+     * @return GPA of each term, in term order
+     */
+    public Map<Integer, Double> getTermGpas() {
+        Map<Integer, double[]> sums = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            double[] sum = sums.computeIfAbsent(entry.termId, k -> new double[2]);
+            sum[0] += entry.gradePoints * entry.credits;
+            sum[1] += entry.credits;
+        }
+        Map<Integer, Double> gpas = new LinkedHashMap<>();
+        sums.forEach((termId, sum) -> gpas.put(termId, sum[1] > 0 ? sum[0] / sum[1] : 0.0));
+        return gpas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Transcript{student='%s', courses=%d, credits=%d, gpa=%.2f}",
+                student.getStudentId(), entries.size(), totalCredits, getGpa());
+    }
+
+    /**
+     * One graded course on a transcript.
+     */
+    public static class Entry {
+        private final int termId;
+        private final String courseId;
+        private final String courseName;
+        private final int credits;
+        private final double grade;
+        private final double gradePoints;
+
+        Entry(int termId, String courseId, String courseName, int credits, double grade, double gradePoints) {
+            this.termId = termId;
+            this.courseId = courseId;
+            this.courseName = courseName;
+            this.credits = credits;
+            this.grade = grade;
+            this.gradePoints = gradePoints;
+        }
+
+        public int getTermId() { return termId; }
+
+        public String getCourseId() { return courseId; }
+
+        public String getCourseName() { return courseName; }
+
+        public int getCredits() { return credits; }
+
+        public double getGrade() { return grade; }
+
+        public double getGradePoints() { return gradePoints; }
+
+        @Override
+        public String toString() {
+            return String.format("%d  %-10s %-30s %d cr  grade=%.2f  points=%.2f",
+                    termId, courseId, courseName, credits, grade, gradePoints);
+        }
+    }
+}
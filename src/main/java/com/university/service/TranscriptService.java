@@ -0,0 +1,139 @@
+package com.university.service;
+
+import com.university.dao.TranscriptDAO;
+import com.university.database.DatabaseConnection;
+import com.university.model.Transcript;
+import com.university.util.Env;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds transcripts, one at a time or for a whole cohort.
+ *
+ * A cohort is split into chunks that are loaded concurrently, one query per
+ * chunk. Each worker holds at most one pooled connection at a time, and the
+ * number of workers is kept below the pool size so interactive users are
+ * never starved. Configured with TRANSCRIPT_PARALLELISM (default 4).
+ */
+public class TranscriptService {
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final TranscriptDAO transcriptDAO;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = Env.getInt("TRANSCRIPT_PARALLELISM", 4);
+
+    public TranscriptService() {
+        this(new TranscriptDAO());
+    }
+
+    public TranscriptService(TranscriptDAO transcriptDAO) {
+        this.transcriptDAO = transcriptDAO;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets how many students are loaded per query.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets how many chunks are loaded at once; capped at runtime to one less
+     * than the connection pool size.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @return The student's transcript, or null if the student does not exist
+     */
+    public Transcript getTranscript(String studentId) {
+        return transcriptDAO.getTranscript(studentId);
+    }
+
+    /**
+     * Loads the transcripts of a cohort.
+     * @param studentIds Student IDs
+     * @return Transcripts keyed by student ID in input order; unknown students
+     *         are left out, and so are the students of any chunk that failed
+     */
+    public Map<String, Transcript> getTranscripts(Collection<String> studentIds) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(chunkSize);
+        for (String studentId : studentIds) {
+            chunk.add(studentId);
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        Map<String, Transcript> transcripts = new LinkedHashMap<>();
+        if (chunks.size() <= 1) {
+            for (List<String> ids : chunks) {
+                merge(ids, transcriptDAO.getTranscripts(ids), transcripts);
+            }
+            return transcripts;
+        }
+
+        int poolSize = DatabaseConnection.getInstance().getPool().getConfig().getMaxSize();
+        int workers = Math.max(1, Math.min(Math.min(parallelism, poolSize - 1), chunks.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "transcript-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<Map<String, Transcript>>> results = new ArrayList<>(chunks.size());
+            for (List<String> ids : chunks) {
+                results.add(executor.submit(() -> transcriptDAO.getTranscripts(ids)));
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                try {
+                    merge(chunks.get(i), results.get(i).get(), transcripts);
+                } catch (ExecutionException e) {
+                    // Leave this chunk's students out and keep merging the rest
+                    System.err.println("Error generating transcripts for chunk " + (i + 1) + " of "
+                            + chunks.size() + ": " + e.getCause());
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return transcripts;
+    }
+
+    private static void merge(List<String> ids, Map<String, Transcript> loaded, Map<String, Transcript> into) {
+        for (String id : ids) {
+            Transcript transcript = loaded.get(id);
+            if (transcript != null) {
+                into.put(id, transcript);
+            }
+        }
+    }
+}
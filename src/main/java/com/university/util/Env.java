@@ -0,0 +1,45 @@
+package com.university.util;
+
+/**
+ * Reads optional settings from environment variables, the way the database
+ * URL and credentials are configured.
+ */
+public final class Env {
+    
+    private Env() {
+    }
+    
+    public static int getInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    public static long getLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+}
@@ -0,0 +1,228 @@
+package com.university.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * A hash map from objects to primitive doubles, for holding grades.
+ *
+ * Keys and values sit in two parallel arrays with open addressing and linear
+ * probing, so an entry costs a reference and a double instead of a HashMap
+ * node and a boxed Double. Removal shifts the following entries of the probe
+ * run back, so no deleted markers pile up. Keys are compared with equals()
+ * and must not be null. Not thread-safe.
+ *
+ * Missing keys are reported with a caller-chosen value, NaN by default, in
+ * place of null.
+ */
+public class ObjectDoubleMap<K> {
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final double noEntryValue;
+    private Object[] keys;
+    private double[] values;
+    private int size;
+    private int resizeAt;
+
+    public ObjectDoubleMap() {
+        this(MIN_CAPACITY, Double.NaN);
+    }
+
+    /**
+     * @param expectedSize Entries to hold without resizing
+     * @param noEntryValue Returned by get(), put() and remove() for missing keys
+     */
+    public ObjectDoubleMap(int expectedSize, double noEntryValue) {
+        this.noEntryValue = noEntryValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Creates a copy with the same entries and no-entry value.
+     */
+    public ObjectDoubleMap(ObjectDoubleMap<? extends K> source) {
+        this.noEntryValue = source.noEntryValue;
+        this.keys = source.keys.clone();
+        this.values = source.values.clone();
+        this.size = source.size;
+        this.resizeAt = source.resizeAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return The key's value, or the no-entry value if absent
+     */
+    public double get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : noEntryValue;
+    }
+
+    public double getOrDefault(Object key, double defaultValue) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    /**
+     * @return The previous value, or the no-entry value if the key was absent
+     */
+    public double put(K key, double value) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        Object existing;
+        while ((existing = keys[index]) != null) {
+            if (existing.equals(key)) {
+                double previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return noEntryValue;
+    }
+
+    /**
+     * @return The removed value, or the no-entry value if the key was absent
+     */
+    public double remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return noEntryValue;
+        }
+        double removed = values[index];
+        shiftBack(index);
+        size--;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjDoubleConsumer<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    public void forEachValue(DoubleConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return A boxed copy, for callers that need a java.util.Map
+     */
+    public Map<K, Double> toMap() {
+        Map<K, Double> copy = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(copy::put);
+        return copy;
+    }
+
+    private int indexOf(Object key) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        Object existing;
+        while ((existing = keys[index]) != null) {
+            if (existing.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the gap left at index by moving back every later entry of the
+     * probe run that would otherwise become unreachable.
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            Object key = keys[index];
+            if (key == null) {
+                break;
+            }
+            int home = slot(key, mask);
+            // Move the entry if its home slot is not in (gap, index], cyclically
+            boolean reachable = gap <= index ? gap < home && home <= index : gap < home || home <= index;
+            if (!reachable) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                int index = slot(key, mask);
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new double[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(0, expectedSize) / (double) LOAD_FACTOR) + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int slot(Object key, int mask) {
+        // Spread the hash so keys with similar hashCodes do not cluster
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -1,5 +1,6 @@
 -- University Management System Database Schema
 -- PostgreSQL Database Schema for Lab 2
+-- Requires PostgreSQL 13 or later (row triggers on the partitioned enrollments table)
 
 -- Create database (run this separately if needed)
 -- CREATE DATABASE university_management;
@@ -44,6 +45,29 @@ CREATE TABLE IF NOT EXISTS instructors (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Academic terms. term_id encodes year and season as YYYYS
+-- (1 = spring, 2 = summer, 3 = fall), so ids sort chronologically
+CREATE TABLE IF NOT EXISTS terms (
+    term_id INTEGER PRIMARY KEY CHECK (term_id > 0),
+    name VARCHAR(50) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    archived BOOLEAN NOT NULL DEFAULT FALSE, -- enrollments partition detached by TermRolloverJob
+    CHECK (end_date >= start_date)
+);
+
+-- The term in progress: the latest one that has started, or the first one
+-- if none has started yet
+CREATE OR REPLACE FUNCTION current_term_id()
+RETURNS INTEGER AS $$
+    SELECT COALESCE(
+        (SELECT term_id FROM terms WHERE start_date <= CURRENT_DATE ORDER BY start_date DESC LIMIT 1),
+        (SELECT term_id FROM terms ORDER BY start_date LIMIT 1));
+$$ LANGUAGE sql STABLE;
+
+-- Enrollment partitions of archived terms are detached and moved here
+CREATE SCHEMA IF NOT EXISTS archive;
+
 CREATE TABLE IF NOT EXISTS courses (
     course_id VARCHAR(20) PRIMARY KEY,
     course_name VARCHAR(100) NOT NULL,
@@ -53,22 +77,46 @@ CREATE TABLE IF NOT EXISTS courses (
     instructor_id VARCHAR(50),
     schedule VARCHAR(100),
     location VARCHAR(100),
+    capacity INTEGER CHECK (capacity IS NULL OR capacity >= 0), -- NULL means unlimited
+    enrolled_count INTEGER NOT NULL DEFAULT 0, -- active enrollments, kept by EnrollmentDAO
+    term_id INTEGER NOT NULL DEFAULT current_term_id(), -- term the course is offered in
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (instructor_id) REFERENCES instructors(id) ON DELETE SET NULL
+    FOREIGN KEY (instructor_id) REFERENCES instructors(id) ON DELETE SET NULL,
+    FOREIGN KEY (term_id) REFERENCES terms(term_id)
 );
 
+-- Range-partitioned by term so that current-term queries only touch the
+-- current partition, and old terms can be detached. Every enrollment takes
+-- the term of its course. There is no default partition: TermDAO creates a
+-- term's partition with the term, and writes to a term without one fail.
+-- Row triggers on enrollments fire on the partitions, where TG_TABLE_NAME is
+-- the partition's name; record_tombstone maps it back to enrollments.
 CREATE TABLE IF NOT EXISTS enrollments (
-    id SERIAL PRIMARY KEY,
+    id SERIAL,
+    term_id INTEGER NOT NULL,
     student_id VARCHAR(50) NOT NULL,
     course_id VARCHAR(20) NOT NULL,
     grade DECIMAL(5,2),
     enrollment_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status VARCHAR(20) DEFAULT 'ACTIVE',
-    UNIQUE(student_id, course_id),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (term_id, id),
+    UNIQUE(term_id, student_id, course_id),
+    FOREIGN KEY (term_id) REFERENCES terms(term_id),
     FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE
-);
+) PARTITION BY RANGE (term_id);
+
+-- Archived terms' partitions, re-attached here by TermDAO.archiveTerm so
+-- that history stays readable without weighing on the live table
+CREATE TABLE IF NOT EXISTS archive.enrollments (LIKE enrollments) PARTITION BY RANGE (term_id);
+
+-- Every enrollment, live and archived, for transcripts
+CREATE OR REPLACE VIEW enrollment_history AS
+    SELECT * FROM enrollments
+    UNION ALL
+    SELECT * FROM archive.enrollments;
 
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_students_student_id ON students(student_id);
@@ -78,10 +126,36 @@ CREATE INDEX IF NOT EXISTS idx_instructors_employee_id ON instructors(employee_i
 CREATE INDEX IF NOT EXISTS idx_instructors_department ON instructors(department);
 CREATE INDEX IF NOT EXISTS idx_courses_department ON courses(department);
 CREATE INDEX IF NOT EXISTS idx_courses_instructor ON courses(instructor_id);
+CREATE INDEX IF NOT EXISTS idx_courses_term ON courses(term_id);
 CREATE INDEX IF NOT EXISTS idx_enrollments_student ON enrollments(student_id);
 CREATE INDEX IF NOT EXISTS idx_enrollments_course ON enrollments(course_id);
 
+-- Composite indexes matching the keyset pagination order of each listing
+CREATE INDEX IF NOT EXISTS idx_students_name_order ON students(last_name, first_name, id);
+CREATE INDEX IF NOT EXISTS idx_courses_name_order ON courses(course_name, course_id);
+
+-- Indexes for delta sync reads by updated_at watermark
+CREATE INDEX IF NOT EXISTS idx_students_updated_at ON students(updated_at);
+CREATE INDEX IF NOT EXISTS idx_instructors_updated_at ON instructors(updated_at);
+CREATE INDEX IF NOT EXISTS idx_courses_updated_at ON courses(updated_at);
+CREATE INDEX IF NOT EXISTS idx_enrollments_updated_at ON enrollments(updated_at);
+
+-- Per-course grade summary, kept current by the maintain_course_stats
+-- trigger so statistics reads do not aggregate the enrollments table.
+-- Enrollment counts live in courses.enrolled_count.
+CREATE TABLE IF NOT EXISTS course_stats (
+    course_id VARCHAR(20) PRIMARY KEY,
+    graded_count INTEGER NOT NULL DEFAULT 0, -- active enrollments with a grade
+    grade_sum DECIMAL(12,2) NOT NULL DEFAULT 0, -- sum of those grades
+    FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE
+);
+
 -- Insert sample data
+INSERT INTO terms (term_id, name, start_date, end_date) VALUES
+(20263, 'Fall 2026', '2026-08-24', '2026-12-18');
+
+CREATE TABLE IF NOT EXISTS enrollments_20263 PARTITION OF enrollments FOR VALUES FROM (20263) TO (20264);
+
 INSERT INTO instructors (id, employee_id, first_name, last_name, email, phone_number, department, title, salary, years_of_experience, specializations) VALUES
 ('INST001', 'EMP001', 'Dr. Sarah', 'Johnson', 'sarah.johnson@university.edu', '555-0101', 'Computer Science', 'Professor', 95000.00, 15, ARRAY['Java Programming', 'Database Systems', 'Software Engineering']),
 ('INST002', 'EMP002', 'Prof. Michael', 'Chen', 'michael.chen@university.edu', '555-0102', 'Mathematics', 'Associate Professor', 85000.00, 12, ARRAY['Calculus', 'Linear Algebra', 'Statistics']),
@@ -104,11 +178,115 @@ END;
 $$ language 'plpgsql';
 
 -- Create triggers to automatically update the updated_at column
-CREATE TRIGGER update_students_updated_at BEFORE UPDATE ON students
+-- GPA rewrites by GpaRecomputationJob are not student edits; leaving
+-- updated_at alone keeps the job from counting every student it rewrote as
+-- touched on its next incremental run
+CREATE TRIGGER update_students_updated_at
+    BEFORE UPDATE OF id, student_id, first_name, last_name, email, phone_number, major, year_level,
+        student_type, advisor, is_honors_student, thesis_title, supervisor, degree_program
+    ON students
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
 CREATE TRIGGER update_instructors_updated_at BEFORE UPDATE ON instructors
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
-CREATE TRIGGER update_courses_updated_at BEFORE UPDATE ON courses
+-- Seat count changes are not course edits; leaving updated_at alone keeps the
+-- course catalog and delta sync from reloading courses on every enrollment
+CREATE TRIGGER update_courses_updated_at
+    BEFORE UPDATE OF course_name, description, credits, department, instructor_id, schedule, location, capacity
+    ON courses
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+CREATE TRIGGER update_enrollments_updated_at BEFORE UPDATE ON enrollments
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+-- Tombstones: one row per deleted record so delta sync can propagate deletes
+CREATE TABLE IF NOT EXISTS tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    table_name VARCHAR(50) NOT NULL,
+    row_key VARCHAR(100) NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_tombstones_table_deleted_at ON tombstones(table_name, deleted_at);
+
+-- Progress of incremental batch jobs: the end of the last window each
+-- job completed
+CREATE TABLE IF NOT EXISTS job_watermarks (
+    job_name VARCHAR(50) PRIMARY KEY,
+    watermark TIMESTAMP NOT NULL
+);
+
+-- Records the deleted row's key; trigger arguments name the key columns,
+-- composite keys are joined with '/'. Rows deleted from a partition are
+-- recorded under the partitioned table's name.
+CREATE OR REPLACE FUNCTION record_tombstone()
+RETURNS TRIGGER AS $$
+DECLARE
+    deleted_key TEXT := '';
+    deleted_table TEXT := COALESCE(
+        (SELECT p.relname FROM pg_inherits i JOIN pg_class p ON p.oid = i.inhparent WHERE i.inhrelid = TG_RELID),
+        TG_TABLE_NAME);
+BEGIN
+    FOR i IN 0 .. TG_NARGS - 1 LOOP
+        IF i > 0 THEN
+            deleted_key := deleted_key || '/';
+        END IF;
+        deleted_key := deleted_key || (to_jsonb(OLD) ->> TG_ARGV[i]);
+    END LOOP;
+    INSERT INTO tombstones (table_name, row_key) VALUES (deleted_table, deleted_key);
+    RETURN OLD;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER record_students_tombstone AFTER DELETE ON students
+    FOR EACH ROW EXECUTE FUNCTION record_tombstone('id');
+
+CREATE TRIGGER record_instructors_tombstone AFTER DELETE ON instructors
+    FOR EACH ROW EXECUTE FUNCTION record_tombstone('id');
+
+CREATE TRIGGER record_courses_tombstone AFTER DELETE ON courses
+    FOR EACH ROW EXECUTE FUNCTION record_tombstone('course_id');
+
+CREATE TRIGGER record_enrollments_tombstone AFTER DELETE ON enrollments
+    FOR EACH ROW EXECUTE FUNCTION record_tombstone('student_id', 'course_id');
+
+-- Applies an enrollment change to course_stats. Only graded ACTIVE rows
+-- count: the old row's share is taken out and the new row's share put in, so
+-- enrolling and dropping ungraded students never touch the summary. Removals
+-- are plain updates so that deletes cascading from a course (whose stats row
+-- is already gone) are no-ops.
+CREATE OR REPLACE FUNCTION maintain_course_stats()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.status = 'ACTIVE' AND OLD.grade IS NOT NULL THEN
+        UPDATE course_stats
+        SET graded_count = graded_count - 1,
+            grade_sum = grade_sum - OLD.grade
+        WHERE course_id = OLD.course_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.status = 'ACTIVE' AND NEW.grade IS NOT NULL THEN
+        INSERT INTO course_stats AS cs (course_id, graded_count, grade_sum)
+        VALUES (NEW.course_id, 1, NEW.grade)
+        ON CONFLICT (course_id) DO UPDATE
+        SET graded_count = cs.graded_count + EXCLUDED.graded_count,
+            grade_sum = cs.grade_sum + EXCLUDED.grade_sum;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER maintain_enrollments_course_stats
+    AFTER INSERT OR DELETE OR UPDATE OF status, grade, course_id ON enrollments
+    FOR EACH ROW EXECUTE FUNCTION maintain_course_stats();
+
+-- Backfill for databases that already have enrollments; same statement as
+-- EnrollmentDAO.rebuildCourseStats()
+INSERT INTO course_stats (course_id, graded_count, grade_sum)
+SELECT c.course_id, COUNT(e.grade), COALESCE(SUM(e.grade), 0)
+FROM courses c LEFT JOIN enrollments e ON e.course_id = c.course_id AND e.status = 'ACTIVE'
+WHERE c.term_id IN (SELECT term_id FROM terms WHERE NOT archived)
+GROUP BY c.course_id
+ON CONFLICT (course_id) DO UPDATE
+SET graded_count = EXCLUDED.graded_count,
+    grade_sum = EXCLUDED.grade_sum;
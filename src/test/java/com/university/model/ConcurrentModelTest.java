@@ -0,0 +1,193 @@
+package com.university.model;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers shared students and courses from many threads in concurrent mode
+ * (MODEL_CONCURRENT=true, set for the test run in pom.xml).
+ *
+ * Every student/course pair belongs to one thread, which enrolls, drops and
+ * grades it at random and tracks what the pair should end up as. Threads
+ * share the Student and Course objects, so a lost update on either side
+ * shows up as a pair that disagrees with its owner's record, and nothing
+ * another thread does can paper over it. Afterwards both sides must match
+ * the record and the running totals must match a full recompute.
+ */
+class ConcurrentModelTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+    private static final int STUDENT_COUNT = 8;
+    private static final int COURSE_COUNT = 4;
+    private static final double TOLERANCE = 1e-6;
+
+    @BeforeAll
+    static void requireConcurrentMode() {
+        assertTrue(ModelLocks.CONCURRENT, "run with MODEL_CONCURRENT=true");
+    }
+
+    @Test
+    void enrollDropAndGradeFromManyThreadsKeepsBothSidesConsistent() throws Exception {
+        List<Student> students = createStudents();
+        List<Course> courses = createCourses();
+        int pairCount = STUDENT_COUNT * COURSE_COUNT;
+        // Written only by the pair's owner; read after the workers are joined
+        boolean[] expectedEnrolled = new boolean[pairCount];
+        double[] expectedGrades = new double[pairCount];
+        Arrays.fill(expectedGrades, Double.NaN);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int owner = t;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    runOperations(new Random(42L + owner), owner, students, courses,
+                                  expectedEnrolled, expectedGrades);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                // Rethrows anything a worker hit, such as a ConcurrentModificationException
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int c = 0; c < COURSE_COUNT; c++) {
+            Course course = courses.get(c);
+            Map<Student, Double> courseGrades = course.getStudentGrades();
+            int enrolled = 0;
+            int graded = 0;
+            double sum = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (int s = 0; s < STUDENT_COUNT; s++) {
+                Student student = students.get(s);
+                int pair = s * COURSE_COUNT + c;
+                String label = student.getId() + " in " + course.getCourseId();
+
+                assertEquals(expectedEnrolled[pair], student.isEnrolledInCourse(course), label);
+                assertEquals(expectedEnrolled[pair], course.isStudentEnrolled(student), label);
+                assertEquals(expectedEnrolled[pair], student.getEnrolledCourses().contains(course), label);
+                assertEquals(expectedEnrolled[pair], course.getEnrolledStudents().contains(student), label);
+
+                double expectedGrade = expectedGrades[pair];
+                if (Double.isNaN(expectedGrade)) {
+                    assertTrue(Double.isNaN(student.getCourseGrade(course)), label);
+                    assertFalse(courseGrades.containsKey(student), label);
+                } else {
+                    assertEquals(expectedGrade, student.getCourseGrade(course), TOLERANCE, label);
+                    assertEquals(expectedGrade, courseGrades.get(student), TOLERANCE, label);
+                    graded++;
+                    sum += expectedGrade;
+                    min = Math.min(min, expectedGrade);
+                    max = Math.max(max, expectedGrade);
+                }
+                if (expectedEnrolled[pair]) {
+                    enrolled++;
+                }
+            }
+
+            assertEquals(enrolled, course.getEnrollmentCount());
+            assertEquals(graded, course.getGradedCount());
+            assertEquals(graded > 0 ? sum / graded : 0.0, course.getAverageGrade(), TOLERANCE);
+            assertEquals(graded > 0 ? min : 0.0, course.getMinGrade(), TOLERANCE);
+            assertEquals(graded > 0 ? max : 0.0, course.getMaxGrade(), TOLERANCE);
+        }
+
+        for (Student student : students) {
+            double runningGpa = student.getGpa();
+            student.calculateGPA();
+            assertEquals(student.getGpa(), runningGpa, TOLERANCE, student.getId());
+        }
+    }
+
+    private static void runOperations(Random random, int owner, List<Student> students, List<Course> courses,
+                                      boolean[] expectedEnrolled, double[] expectedGrades) {
+        List<Integer> ownedPairs = new ArrayList<>();
+        for (int pair = owner; pair < expectedEnrolled.length; pair += THREADS) {
+            ownedPairs.add(pair);
+        }
+
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int pair = ownedPairs.get(random.nextInt(ownedPairs.size()));
+            Student student = students.get(pair / COURSE_COUNT);
+            Course course = courses.get(pair % COURSE_COUNT);
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                student.enrollInCourse(course);
+                expectedEnrolled[pair] = true;
+            } else if (operation < 6) {
+                student.dropCourse(course);
+                expectedEnrolled[pair] = false;
+                expectedGrades[pair] = Double.NaN;
+            } else if (operation < 9) {
+                double grade = random.nextInt(201) / 2.0;
+                student.addGrade(course, grade);
+                if (expectedEnrolled[pair]) {
+                    expectedGrades[pair] = grade;
+                }
+            } else {
+                // Readers iterate published snapshots while writers replace them
+                for (Course enrolled : student.getEnrolledCourses()) {
+                    enrolled.getCredits();
+                }
+                course.getStudentGrades();
+                course.getAverageGrade();
+                course.getMaxGrade();
+                student.getTotalEnrolledCredits();
+            }
+        }
+    }
+
+    private static List<Student> createStudents() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENT_COUNT; i++) {
+            String id = "S" + i;
+            String email = "student" + i + "@university.edu";
+            Student student;
+            switch (i % 3) {
+                case 0:
+                    student = new Student(id, "First" + i, "Last" + i, email, null, id, "Computer Science", 1);
+                    break;
+                case 1:
+                    student = new UndergraduateStudent(id, "First" + i, "Last" + i, email, null, id, "Mathematics", 2);
+                    break;
+                default:
+                    student = new GraduateStudent(id, "First" + i, "Last" + i, email, null, id, "Physics", 5);
+                    break;
+            }
+            students.add(student);
+        }
+        return students;
+    }
+
+    private static List<Course> createCourses() {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSE_COUNT; i++) {
+            courses.add(new Course("C" + i, "Course " + i, null, 1 + i % 4, "Computer Science", null, null));
+        }
+        return courses;
+    }
+}
@@ -0,0 +1,186 @@
+package com.university.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers puts, growth and removal from ObjectDoubleMap, including removal
+ * from a probe run that wraps past the end of the table.
+ */
+class ObjectDoubleMapTest {
+    // new ObjectDoubleMap<>(0, ...) starts at the minimum capacity of 8 and
+    // grows on the fifth entry
+    private static final int SMALL_MASK = 7;
+
+    @Test
+    void putReturnsPreviousValueAndOverwrites() {
+        ObjectDoubleMap<String> map = new ObjectDoubleMap<>();
+
+        assertTrue(Double.isNaN(map.put("CS101", 85.0)));
+        assertEquals(85.0, map.put("CS101", 92.5));
+        assertEquals(92.5, map.get("CS101"));
+        assertEquals(1, map.size());
+
+        assertTrue(Double.isNaN(map.get("MATH201")));
+        assertEquals(-1.0, map.getOrDefault("MATH201", -1.0));
+        assertFalse(map.containsKey("MATH201"));
+    }
+
+    @Test
+    void usesTheConfiguredNoEntryValue() {
+        ObjectDoubleMap<String> map = new ObjectDoubleMap<>(4, -1.0);
+
+        assertEquals(-1.0, map.get("CS101"));
+        assertEquals(-1.0, map.put("CS101", 70.0));
+        assertEquals(70.0, map.remove("CS101"));
+        assertEquals(-1.0, map.remove("CS101"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        ObjectDoubleMap<Integer> map = new ObjectDoubleMap<>(0, Double.NaN);
+        int count = 1_000;
+        for (int i = 0; i < count; i++) {
+            map.put(i, i / 2.0);
+        }
+
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i / 2.0, map.get(i), "key " + i);
+        }
+
+        for (int i = 0; i < count; i += 2) {
+            assertEquals(i / 2.0, map.remove(i));
+        }
+        assertEquals(count / 2, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0, Double.isNaN(map.get(i)), "key " + i);
+        }
+
+        Map<Integer, Double> boxed = map.toMap();
+        assertEquals(count / 2, boxed.size());
+        assertEquals(499.5, boxed.get(999));
+    }
+
+    @Test
+    void removeFromClusterThatWrapsAroundKeepsLaterKeysReachable() {
+        // Laid out in a table of 8: a at 7, b wraps to 0, c (home 0) is
+        // pushed to 1, d (home 7) ends up at 2
+        Key a = new Key("a", hashForSlot(7, 0));
+        Key b = new Key("b", hashForSlot(7, 1));
+        Key c = new Key("c", hashForSlot(0, 0));
+        Key d = new Key("d", hashForSlot(7, 2));
+
+        ObjectDoubleMap<Key> map = new ObjectDoubleMap<>(0, Double.NaN);
+        map.put(a, 1.0);
+        map.put(b, 2.0);
+        map.put(c, 3.0);
+        map.put(d, 4.0);
+        assertEquals(4, map.size());
+
+        assertEquals(1.0, map.remove(a));
+        assertFalse(map.containsKey(a));
+        assertEquals(2.0, map.get(b));
+        assertEquals(3.0, map.get(c));
+        assertEquals(4.0, map.get(d));
+
+        assertEquals(3.0, map.remove(c));
+        assertEquals(2.0, map.get(b));
+        assertEquals(4.0, map.get(d));
+        assertEquals(2, map.size());
+
+        // Re-adding after the shifts must not create a duplicate entry
+        map.put(d, 5.0);
+        map.put(a, 6.0);
+        assertEquals(3, map.size());
+        assertEquals(5.0, map.get(d));
+        assertEquals(6.0, map.get(a));
+    }
+
+    @Test
+    void removeBeforeWrappedEntryAtItsHomeSlotLeavesItInPlace() {
+        // a at 6, b at 7, c at its home slot 0, d (home 6) wrapped to 1
+        Key a = new Key("a", hashForSlot(6, 0));
+        Key b = new Key("b", hashForSlot(7, 0));
+        Key c = new Key("c", hashForSlot(0, 0));
+        Key d = new Key("d", hashForSlot(6, 1));
+
+        ObjectDoubleMap<Key> map = new ObjectDoubleMap<>(0, Double.NaN);
+        map.put(a, 1.0);
+        map.put(b, 2.0);
+        map.put(c, 3.0);
+        map.put(d, 4.0);
+
+        // b and c stay put; only d moves back into the gap at 6
+        assertEquals(1.0, map.remove(a));
+        assertEquals(2.0, map.get(b));
+        assertEquals(3.0, map.get(c));
+        assertEquals(4.0, map.get(d));
+        assertEquals(3, map.size());
+
+        assertEquals(3.0, map.remove(c));
+        assertEquals(2.0, map.get(b));
+        assertEquals(4.0, map.get(d));
+    }
+
+    @Test
+    void copyIsIndependentOfTheSource() {
+        ObjectDoubleMap<String> source = new ObjectDoubleMap<>();
+        source.put("CS101", 80.0);
+        ObjectDoubleMap<String> copy = new ObjectDoubleMap<>(source);
+
+        copy.put("CS101", 90.0);
+        copy.put("MATH201", 75.0);
+        source.clear();
+
+        assertEquals(2, copy.size());
+        assertEquals(90.0, copy.get("CS101"));
+        assertTrue(source.isEmpty());
+        assertFalse(source.containsKey("CS101"));
+    }
+
+    /**
+     * Finds the skip-th hash code whose home slot in a table of 8 is the given
+     * slot, using the same spreading as ObjectDoubleMap.
+     */
+    private static int hashForSlot(int slot, int skip) {
+        for (int hash = 0; ; hash++) {
+            int h = hash * 0x9E3779B9;
+            if (((h ^ (h >>> 16)) & SMALL_MASK) == slot && skip-- == 0) {
+                return hash;
+            }
+        }
+    }
+
+    /** A key with a chosen hash code, equal only to keys with the same name. */
+    private static final class Key {
+        private final String name;
+        private final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}